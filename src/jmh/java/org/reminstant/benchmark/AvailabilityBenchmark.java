@@ -0,0 +1,71 @@
+package org.reminstant.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reminstant.dto.http.response.RoomDayRangeAvailabilityDto;
+import org.reminstant.dto.http.response.RoomsDayAvailabilityDto;
+import org.reminstant.model.Room;
+import org.reminstant.model.RoomDayRangeAvailability;
+import org.reminstant.model.RoomsDayAvailability;
+import org.reminstant.model.WeeklySchedule;
+import org.reminstant.service.RoomAvailabilityIndex;
+import org.reminstant.service.RoomService;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability folding over the room catalog and the DTO conversions of its results.
+ * Run with {@code -prof gc} (the default of the jmh task) to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int roomCount;
+
+  private RoomService roomService;
+  private String today;
+  private String roomTitle;
+  private RoomsDayAvailability roomsDayAvailability;
+  private RoomDayRangeAvailability roomDayRangeAvailability;
+
+  @Setup
+  public void setUp() {
+    List<Room> rooms = BenchmarkFixtures.createRooms(roomCount, 42);
+    WeeklySchedule commonSchedule = BenchmarkFixtures.createSchedule(new SplittableRandom(1));
+    roomService = BenchmarkFixtures.createRoomService(rooms, commonSchedule, 42);
+    today = BenchmarkFixtures.today();
+    roomTitle = rooms.getFirst().getRoomTitle();
+
+    roomsDayAvailability = roomService.getRoomsAvailabilityByDay(today);
+    roomDayRangeAvailability = roomService.getRoomAvailabilityPerDay(
+        roomTitle, today, RoomAvailabilityIndex.HORIZON_DAYS);
+  }
+
+  /**
+   * Mask folding of every room for one day
+   */
+  @Benchmark
+  public RoomsDayAvailability getRoomsAvailabilityByDay() {
+    return roomService.getRoomsAvailabilityByDay(today);
+  }
+
+  @Benchmark
+  public RoomsDayAvailabilityDto convertRoomsDayAvailabilityToDto() {
+    return roomService.convertAvailabilityToDto(roomsDayAvailability);
+  }
+
+  /**
+   * Independent of {@code roomCount}; kept here to share the fixture
+   */
+  @Benchmark
+  public RoomDayRangeAvailabilityDto convertRoomDayRangeAvailabilityToDto() {
+    return roomService.convertAvailabilityToDto(roomDayRangeAvailability);
+  }
+}
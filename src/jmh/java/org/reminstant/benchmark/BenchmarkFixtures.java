@@ -0,0 +1,89 @@
+package org.reminstant.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.reminstant.model.Room;
+import org.reminstant.model.WeeklySchedule;
+import org.reminstant.service.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link RoomService} over in-memory state only: the room catalog and the common schedule
+ * are preloaded into their caches and reservations live in the availability index,
+ * so the benchmarked paths never reach Mongo or Redis.
+ */
+final class BenchmarkFixtures {
+
+  private static final Duration NEVER_STALE = Duration.ofDays(1);
+  private static final int NIGHT_HOURS_MASK = 0xF0_007F;
+
+  private BenchmarkFixtures() {
+  }
+
+  static RoomService createRoomService(List<Room> rooms, WeeklySchedule commonSchedule, long seed) {
+    StringRedisTemplate redisTemplate = new StringRedisTemplate();
+    RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+
+    RoomCatalogCache roomCatalogCache = new RoomCatalogCache(
+        redisTemplate, listenerContainer, Math.max(rooms.size(), 1), NEVER_STALE, NEVER_STALE);
+    Map<String, Room> roomsByTitle = rooms.stream()
+        .collect(Collectors.toMap(Room::getRoomTitle, Function.identity()));
+    roomCatalogCache.findByTitles(roomsByTitle.keySet(), titles -> rooms);
+    roomCatalogCache.findAll(() -> rooms);
+
+    CommonUnavailabilityCache commonUnavailabilityCache =
+        new CommonUnavailabilityCache(redisTemplate, listenerContainer, NEVER_STALE);
+    commonUnavailabilityCache.get(() -> commonSchedule);
+
+    RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+    SplittableRandom random = new SplittableRandom(seed);
+    long firstEpochDay = availabilityIndex.getFirstEpochDay();
+    for (Room room : rooms) {
+      for (int day = 0; day < RoomAvailabilityIndex.HORIZON_DAYS; ++day) {
+        int startSlot = random.nextInt(SlotMasks.SLOTS_PER_DAY - 8);
+        int endSlot = startSlot + 1 + random.nextInt(8);
+        availabilityIndex.reserve(room.getId(), firstEpochDay + day,
+            SlotMasks.rangeLow(startSlot, endSlot), SlotMasks.rangeHigh(startSlot, endSlot));
+      }
+    }
+
+    return new RoomService(null, availabilityIndex, null, new ReservationLockManager(16),
+        commonUnavailabilityCache, roomCatalogCache, new ConcurrentLookups(Duration.ofSeconds(1)),
+        new SimpleMeterRegistry());
+  }
+
+  static List<Room> createRooms(int count, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    List<Room> rooms = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      Room room = new Room("R-%04d".formatted(i));
+      room.setId("room-%04d".formatted(i));
+      room.setWeeklyUnavailability(createSchedule(random));
+      rooms.add(room);
+    }
+    return rooms;
+  }
+
+  static WeeklySchedule createSchedule(SplittableRandom random) {
+    int[] masks = new int[WeeklySchedule.DAYS_PER_WEEK];
+    for (int day = 0; day < masks.length; ++day) {
+      // closed before 07:00 and after 20:00, plus a few random hours
+      masks[day] = NIGHT_HOURS_MASK | random.nextInt(1 << 24) & random.nextInt(1 << 24) & random.nextInt(1 << 24);
+    }
+    return WeeklySchedule.of(masks);
+  }
+
+  static String today() {
+    return LocalDate.now(ZoneOffset.UTC).toString();
+  }
+}
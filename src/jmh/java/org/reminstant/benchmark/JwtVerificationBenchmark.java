@@ -0,0 +1,66 @@
+package org.reminstant.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reminstant.model.TokenClaims;
+import org.reminstant.service.JwtService;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling of the authentication filter: the former path verified the signature once per
+ * extracted claim (four times per request), the current one verifies it once and serves repeated
+ * tokens from the verified-claims cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+  private static final String SIGNING_KEY =
+      "u9lsXL5gbjdOmm61oMv3vIcpa+YamfzA7QNNmIMurA11KRHBTRbGIo9kndtp/hSnVotaIEDkXyahEUMmrEjavA==";
+
+  private JwtService jwtService;
+  private JwtParser jwtParser;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtService = new JwtService(null, null, SIGNING_KEY, 10_000);
+    jwtParser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNING_KEY))).build();
+    token = jwtService.generateAccessToken("user", "USER", 1L, Duration.ofHours(1));
+  }
+
+  /**
+   * Version check, blacklist check, username and role, each parsing the token again
+   */
+  @Benchmark
+  public void formerFilterPath(Blackhole blackhole) {
+    blackhole.consume(jwtParser.parseSignedClaims(token).getPayload().get("Version"));
+    blackhole.consume(jwtParser.parseSignedClaims(token).getPayload().getId());
+    blackhole.consume(jwtParser.parseSignedClaims(token).getPayload().getSubject());
+    blackhole.consume(jwtParser.parseSignedClaims(token).getPayload().get("Role", String.class));
+  }
+
+  /**
+   * Cost of a cache miss in {@link JwtService#verify}
+   */
+  @Benchmark
+  public Claims parseOnce() {
+    return jwtParser.parseSignedClaims(token).getPayload();
+  }
+
+  @Benchmark
+  public TokenClaims verifyCached() {
+    return jwtService.verify(token);
+  }
+}
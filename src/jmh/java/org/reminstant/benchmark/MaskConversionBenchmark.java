@@ -0,0 +1,122 @@
+package org.reminstant.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.reminstant.dto.http.common.RoomDto;
+import org.reminstant.model.Room;
+import org.reminstant.model.WeeklySchedule;
+import org.reminstant.service.RoomService;
+import org.reminstant.service.SlotMasks;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hour mask <-> hour list conversions, weekly schedule lookups and the slot mask operations
+ * that replaced the 24-bit hour masks on the reservation paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskConversionBenchmark {
+
+  private static final int SAMPLES = 1024;
+  private static final DayOfWeek[] DAYS_OF_WEEK = DayOfWeek.values();
+
+  private RoomService roomService;
+  private Room room;
+  private RoomDto roomDto;
+  private WeeklySchedule[] schedules;
+  private int[] hourMasks;
+  private int[] startSlots;
+  private int[] endSlots;
+  private int cursor;
+
+  @Setup
+  public void setUp() {
+    List<Room> rooms = BenchmarkFixtures.createRooms(1, 42);
+    roomService = BenchmarkFixtures.createRoomService(rooms, WeeklySchedule.EMPTY, 42);
+    room = rooms.getFirst();
+    roomDto = roomService.convertRoomToDto(room);
+
+    SplittableRandom random = new SplittableRandom(7);
+    schedules = new WeeklySchedule[SAMPLES];
+    hourMasks = new int[SAMPLES];
+    startSlots = new int[SAMPLES];
+    endSlots = new int[SAMPLES];
+    for (int i = 0; i < SAMPLES; ++i) {
+      schedules[i] = BenchmarkFixtures.createSchedule(random);
+      hourMasks[i] = random.nextInt(1 << 24);
+      startSlots[i] = random.nextInt(SlotMasks.SLOTS_PER_DAY);
+      endSlots[i] = startSlots[i] + 1 + random.nextInt(SlotMasks.SLOTS_PER_DAY - startSlots[i]);
+    }
+  }
+
+  /**
+   * Hour mask -> hour list, seven times
+   */
+  @Benchmark
+  public RoomDto convertHourMasksToLists() {
+    return roomService.convertRoomToDto(room);
+  }
+
+  /**
+   * Hour list -> hour mask, seven times
+   */
+  @Benchmark
+  public Room convertHourListsToMasks() {
+    return roomService.getRoomFromDto(roomDto);
+  }
+
+  /**
+   * Room and common mask of one day, as read per room-day by the availability paths
+   */
+  @Benchmark
+  public int getScheduleMasks() {
+    int i = next();
+    DayOfWeek dayOfWeek = DAYS_OF_WEEK[i % DAYS_OF_WEEK.length];
+    return schedules[i].getMask(dayOfWeek) | schedules[SAMPLES - 1 - i].getMask(dayOfWeek);
+  }
+
+  /**
+   * Baseline for the slot checks: the former hour range mask and conflict test
+   */
+  @Benchmark
+  public boolean hourRangeConflict() {
+    int i = next();
+    int startHour = startSlots[i] / SlotMasks.SLOTS_PER_HOUR;
+    int endHour = (endSlots[i] - 1) / SlotMasks.SLOTS_PER_HOUR;
+    int rangeMask = ((1 << (endHour + 1)) - 1) & ~((1 << startHour) - 1);
+    return (rangeMask & hourMasks[i]) != 0;
+  }
+
+  @Benchmark
+  public boolean slotRangeConflict() {
+    int i = next();
+    int unavailable = hourMasks[i];
+    return SlotMasks.intersects(
+        SlotMasks.hoursToLow(unavailable), SlotMasks.hoursToHigh(unavailable),
+        SlotMasks.rangeLow(startSlots[i], endSlots[i]), SlotMasks.rangeHigh(startSlots[i], endSlots[i]));
+  }
+
+  /**
+   * Slot masks -> hour mask, as done per room-day by the availability paths
+   */
+  @Benchmark
+  public int slotsToTouchedHours() {
+    int i = next();
+    return SlotMasks.toTouchedHours(
+        SlotMasks.rangeLow(startSlots[i], endSlots[i]), SlotMasks.rangeHigh(startSlots[i], endSlots[i]));
+  }
+
+
+
+  private int next() {
+    cursor = (cursor + 1) & (SAMPLES - 1);
+    return cursor;
+  }
+}
@@ -0,0 +1,136 @@
+package org.reminstant.loadtest;
+
+import org.reminstant.dto.http.request.ReservationRequestDto;
+import org.reminstant.model.BatchItemResult;
+import org.reminstant.model.Room;
+import org.reminstant.model.WeeklySchedule;
+import org.reminstant.service.RoomService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the stores through the application's own services: rooms with weekly schedules,
+ * users sharing one password, and a month of reservations across all rooms.
+ */
+class DataSeeder {
+
+  static final String USER_PASSWORD = "load-test-password";
+
+  private static final int BATCH_SIZE = 50;
+  private static final int SEEDED_DAYS = 30;
+  private static final int NIGHT_HOURS_MASK = 0xF0_007F;
+  private static final int FIRST_OPEN_HOUR = 7;
+  private static final int LAST_OPEN_HOUR = 19;
+
+  private final RoomService roomService;
+  private final JdbcTemplate jdbcTemplate;
+  private final PasswordEncoder passwordEncoder;
+  private final SplittableRandom random;
+
+  DataSeeder(ApplicationContext context, long seed) {
+    this.roomService = context.getBean(RoomService.class);
+    this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+    this.passwordEncoder = context.getBean(PasswordEncoder.class);
+    this.random = new SplittableRandom(seed);
+  }
+
+  List<String> seedRooms(int roomCount) {
+    List<String> roomTitles = new ArrayList<>(roomCount);
+    for (int i = 0; i < roomCount; ++i) {
+      Room room = new Room("LT-%05d".formatted(i));
+      room.setWeeklyUnavailability(createSchedule());
+      try {
+        roomService.addRoom(room);
+      } catch (DuplicateKeyException ex) {
+        // seeded by a previous run against the same services
+      }
+      roomTitles.add(room.getRoomTitle());
+    }
+    return roomTitles;
+  }
+
+  /**
+   * Users are inserted directly with a single password hash, since hashing thousands of passwords
+   * would dominate the seeding time without affecting the measured paths.
+   *
+   * @return ids of the seeded users
+   */
+  List<Long> seedUsers(int userCount) {
+    String encodedPassword = passwordEncoder.encode(USER_PASSWORD);
+    List<Object[]> rows = new ArrayList<>(userCount);
+    for (int i = 0; i < userCount; ++i) {
+      rows.add(new Object[]{getUsername(i), encodedPassword});
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO app_user (username, password, role, token_version) VALUES (?, ?, 'USER', 0) "
+            + "ON CONFLICT (username) DO NOTHING", rows);
+
+    return jdbcTemplate.queryForList(
+        "SELECT id FROM app_user WHERE username LIKE 'lt\\_user\\_%' ORDER BY id", Long.class);
+  }
+
+  /**
+   * Reserves up to {@code reservationsPerRoomDay} disjoint one- or two-hour ranges
+   * per room and day over the next month.
+   *
+   * @return number of created reservations
+   */
+  int seedReservations(List<String> roomTitles, List<Long> userIds, int reservationsPerRoomDay) {
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    int created = 0;
+    List<ReservationRequestDto> batch = new ArrayList<>(BATCH_SIZE);
+
+    for (String roomTitle : roomTitles) {
+      for (int day = 0; day < SEEDED_DAYS; ++day) {
+        String date = today.plusDays(day).toString();
+        int occupied = 0;
+        for (int i = 0; i < reservationsPerRoomDay; ++i) {
+          int startHour = FIRST_OPEN_HOUR + random.nextInt(LAST_OPEN_HOUR - FIRST_OPEN_HOUR + 1);
+          int endHour = Math.min(startHour + random.nextInt(2), LAST_OPEN_HOUR);
+          int rangeMask = ((1 << (endHour + 1)) - 1) & ~((1 << startHour) - 1);
+          if ((occupied & rangeMask) != 0) {
+            continue;
+          }
+          occupied |= rangeMask;
+          batch.add(new ReservationRequestDto(roomTitle, date, startHour, endHour));
+          if (batch.size() == BATCH_SIZE) {
+            created += reserve(batch, userIds);
+            batch.clear();
+          }
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      created += reserve(batch, userIds);
+    }
+    return created;
+  }
+
+  static String getUsername(int index) {
+    return "lt_user_%05d".formatted(index);
+  }
+
+
+
+  private int reserve(List<ReservationRequestDto> batch, List<Long> userIds) {
+    Long userId = userIds.get(random.nextInt(userIds.size()));
+    List<BatchItemResult> results = roomService.reserveRooms(userId, List.copyOf(batch));
+    return (int) results.stream().filter(BatchItemResult::isSucceeded).count();
+  }
+
+  private WeeklySchedule createSchedule() {
+    int[] masks = new int[WeeklySchedule.DAYS_PER_WEEK];
+    for (int day = 0; day < masks.length; ++day) {
+      masks[day] = NIGHT_HOURS_MASK | random.nextInt(1 << 24) & random.nextInt(1 << 24) & random.nextInt(1 << 24);
+    }
+    return WeeklySchedule.of(masks);
+  }
+}
@@ -0,0 +1,99 @@
+package org.reminstant.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and response status counts of one measurement window.
+ */
+class LatencyReport {
+
+  private static final long MAX_TRACKABLE_NANOS = Duration.ofMinutes(1).toNanos();
+
+  private static final class EndpointStats {
+    private final Histogram latencies = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+  }
+
+  private final Map<String, EndpointStats> endpoints;
+  private volatile boolean recording;
+
+  LatencyReport() {
+    this.endpoints = new ConcurrentHashMap<>();
+  }
+
+  void startRecording() {
+    endpoints.clear();
+    recording = true;
+  }
+
+  void stopRecording() {
+    recording = false;
+  }
+
+  /**
+   * @param status HTTP status, or {@code 0} if no response was received
+   */
+  void record(String endpoint, long latencyNanos, int status) {
+    if (!recording) {
+      return;
+    }
+    EndpointStats stats = endpoints.computeIfAbsent(endpoint, e -> new EndpointStats());
+    stats.latencies.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+    stats.statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+    if (status == 0 || status >= 500) {
+      stats.failures.increment();
+    }
+  }
+
+  void write(Path path, Duration window, Map<String, Object> parameters) throws IOException {
+    Map<String, Object> endpointReports = new TreeMap<>();
+    endpoints.forEach((endpoint, stats) -> endpointReports.put(endpoint, toReport(stats, window)));
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("parameters", parameters);
+    report.put("windowSeconds", window.toMillis() / 1000.0);
+    report.put("endpoints", endpointReports);
+
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+  }
+
+
+
+  private static Map<String, Object> toReport(EndpointStats stats, Duration window) {
+    Histogram latencies = stats.latencies;
+    Map<String, Long> statusCounts = new TreeMap<>();
+    stats.statusCounts.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("requests", latencies.getTotalCount());
+    report.put("throughputPerSecond", latencies.getTotalCount() * 1000.0 / window.toMillis());
+    report.put("failures", stats.failures.sum());
+    report.put("statusCounts", statusCounts);
+    report.put("p50Millis", toMillis(latencies.getValueAtPercentile(50)));
+    report.put("p99Millis", toMillis(latencies.getValueAtPercentile(99)));
+    report.put("p999Millis", toMillis(latencies.getValueAtPercentile(99.9)));
+    report.put("maxMillis", toMillis(latencies.getMaxValue()));
+    return report;
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
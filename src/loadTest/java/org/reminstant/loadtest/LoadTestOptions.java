@@ -0,0 +1,47 @@
+package org.reminstant.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties.
+ */
+record LoadTestOptions(
+    boolean useContainers,
+    int roomCount,
+    int userCount,
+    int reservationsPerRoomDay,
+    int hotRoomCount,
+    int clientCount,
+    Duration warmup,
+    Duration duration,
+    int availabilityByDateWeight,
+    int availabilityByRoomWeight,
+    int availabilityMatrixWeight,
+    int reserveCancelWeight,
+    int refreshWeight,
+    Path reportPath) {
+
+  static LoadTestOptions fromSystemProperties() {
+    return new LoadTestOptions(
+        Boolean.parseBoolean(System.getProperty("loadtest.containers", "true")),
+        Integer.getInteger("loadtest.rooms", 2000),
+        Integer.getInteger("loadtest.users", 2000),
+        Integer.getInteger("loadtest.reservations-per-room-day", 3),
+        Integer.getInteger("loadtest.hot-rooms", 5),
+        Integer.getInteger("loadtest.clients", 200),
+        Duration.parse(System.getProperty("loadtest.warmup", "PT15S")),
+        Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+        Integer.getInteger("loadtest.weight.availability-by-date", 35),
+        Integer.getInteger("loadtest.weight.availability-by-room", 25),
+        Integer.getInteger("loadtest.weight.availability-matrix", 10),
+        Integer.getInteger("loadtest.weight.reserve-cancel", 20),
+        Integer.getInteger("loadtest.weight.refresh", 10),
+        Path.of(System.getProperty("loadtest.report", "build/load-test/report.json")));
+  }
+
+  int totalWeight() {
+    return availabilityByDateWeight + availabilityByRoomWeight + availabilityMatrixWeight
+        + reserveCancelWeight + refreshWeight;
+  }
+}
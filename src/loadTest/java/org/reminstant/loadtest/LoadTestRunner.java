@@ -0,0 +1,107 @@
+package org.reminstant.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.reminstant.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Boots the application against throwaway service containers (or the services of the active profile
+ * with {@code -Dloadtest.containers=false}), seeds it and drives the mixed workload over HTTP.
+ * Throughput and p50/p99/p999 latency per endpoint of the measurement window are written as JSON.
+ * <p>
+ * {@code ./gradlew loadTest -Dloadtest.clients=500 -Dspring.profiles.active=virtual-threads}
+ */
+@Slf4j
+public class LoadTestRunner {
+
+  private static final long SEED = 42;
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+
+    ServiceStandIns standIns = options.useContainers() ? new ServiceStandIns() : null;
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("server.port", 0);
+    properties.put("spring.docker.compose.enabled", false);
+    if (standIns != null) {
+      standIns.start();
+      properties.putAll(standIns.getApplicationProperties());
+    }
+
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+        .properties(properties)
+        .run(args)) {
+      DataSeeder seeder = new DataSeeder(context, SEED);
+      List<String> roomTitles = seeder.seedRooms(options.roomCount());
+      List<Long> userIds = seeder.seedUsers(options.userCount());
+      int reservationCount = seeder.seedReservations(roomTitles, userIds, options.reservationsPerRoomDay());
+      log.info("Seeded {} rooms, {} users, {} reservations", roomTitles.size(), userIds.size(), reservationCount);
+
+      String baseUri = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+      run(options, context, baseUri, roomTitles);
+    } finally {
+      if (standIns != null) {
+        standIns.close();
+      }
+    }
+  }
+
+
+
+  private static void run(LoadTestOptions options, ConfigurableApplicationContext context, String baseUri,
+                          List<String> roomTitles) throws Exception {
+    LatencyReport report = new LatencyReport();
+    ObjectMapper objectMapper = new ObjectMapper();
+    Map<String, String> uris = Workload.resolveUris(context.getEnvironment(), baseUri);
+    long deadlineNanos = System.nanoTime() + options.warmup().plus(options.duration()).toNanos();
+
+    try (HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+         ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> futures = new ArrayList<>(options.clientCount());
+      for (int i = 0; i < options.clientCount(); ++i) {
+        String username = DataSeeder.getUsername(i % options.userCount());
+        futures.add(clients.submit(new Workload(httpClient, objectMapper, report, options, uris,
+            roomTitles, username, deadlineNanos, SEED + i)));
+      }
+
+      Thread.sleep(options.warmup());
+      report.startRecording();
+      long windowStart = System.nanoTime();
+      log.info("Warmup finished, measuring for {}", options.duration());
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      report.stopRecording();
+      Duration window = Duration.ofNanos(System.nanoTime() - windowStart);
+
+      report.write(options.reportPath(), window, describe(options, context));
+      log.info("Load test report written to {}", options.reportPath().toAbsolutePath());
+    }
+  }
+
+  private static Map<String, Object> describe(LoadTestOptions options, ConfigurableApplicationContext context) {
+    Map<String, Object> parameters = new LinkedHashMap<>();
+    parameters.put("profiles", List.of(context.getEnvironment().getActiveProfiles()));
+    parameters.put("virtualThreads", context.getEnvironment().getProperty("spring.threads.virtual.enabled", "false"));
+    parameters.put("rooms", options.roomCount());
+    parameters.put("users", options.userCount());
+    parameters.put("reservationsPerRoomDay", options.reservationsPerRoomDay());
+    parameters.put("hotRooms", options.hotRoomCount());
+    parameters.put("clients", options.clientCount());
+    parameters.put("warmupSeconds", options.warmup().toSeconds());
+    parameters.put("durationSeconds", options.duration().toSeconds());
+    return parameters;
+  }
+}
@@ -0,0 +1,52 @@
+package org.reminstant.loadtest;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.lifecycle.Startables;
+
+import java.util.Map;
+
+/**
+ * Throwaway Mongo, Postgres and Redis servers matching the services of {@code docker-compose.yaml}.
+ */
+class ServiceStandIns implements AutoCloseable {
+
+  private final MongoDBContainer mongo;
+  private final PostgreSQLContainer<?> postgres;
+  private final GenericContainer<?> redis;
+
+  ServiceStandIns() {
+    this.mongo = new MongoDBContainer("mongo:7");
+    this.postgres = new PostgreSQLContainer<>("postgres:16")
+        .withDatabaseName("app_db")
+        .withUsername("postgres")
+        .withPassword("admin");
+    this.redis = new GenericContainer<>("redis:7").withExposedPorts(6379);
+  }
+
+  void start() {
+    Startables.deepStart(mongo, postgres, redis).join();
+  }
+
+  /**
+   * @return application properties pointing at the started servers
+   */
+  Map<String, Object> getApplicationProperties() {
+    return Map.of(
+        "spring.data.mongodb.uri", mongo.getReplicaSetUrl("reservation"),
+        "spring.datasource.url", postgres.getJdbcUrl(),
+        "spring.datasource.username", postgres.getUsername(),
+        "spring.datasource.password", postgres.getPassword(),
+        "spring.jpa.hibernate.ddl-auto", "update",
+        "spring.data.redis.host", redis.getHost(),
+        "spring.data.redis.port", redis.getMappedPort(6379));
+  }
+
+  @Override
+  public void close() {
+    redis.stop();
+    postgres.stop();
+    mongo.stop();
+  }
+}
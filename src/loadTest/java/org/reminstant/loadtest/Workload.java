@@ -0,0 +1,204 @@
+package org.reminstant.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Closed-loop client of the public API: signs in as one of the seeded users and then issues
+ * a weighted mix of availability reads, reserve/cancel pairs on the hot rooms and token refreshes
+ * until the deadline.
+ */
+class Workload implements Runnable {
+
+  private static final int MAX_SIGN_IN_ATTEMPTS = 20;
+  private static final int FIRST_OPEN_HOUR = 7;
+  private static final int LAST_OPEN_HOUR = 19;
+  private static final int POLLED_DAYS = 30;
+  private static final int RESERVED_DAYS = 7;
+
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper;
+  private final LatencyReport report;
+  private final LoadTestOptions options;
+  private final Map<String, String> uris;
+  private final List<String> roomTitles;
+  private final String username;
+  private final long deadlineNanos;
+  private final SplittableRandom random;
+
+  private String accessToken;
+  private String refreshToken;
+
+  Workload(HttpClient httpClient, ObjectMapper objectMapper, LatencyReport report, LoadTestOptions options,
+           Map<String, String> uris, List<String> roomTitles, String username, long deadlineNanos, long seed) {
+    this.httpClient = httpClient;
+    this.objectMapper = objectMapper;
+    this.report = report;
+    this.options = options;
+    this.uris = uris;
+    this.roomTitles = roomTitles;
+    this.username = username;
+    this.deadlineNanos = deadlineNanos;
+    this.random = new SplittableRandom(seed);
+  }
+
+  /**
+   * @return request URIs of the exercised endpoints
+   */
+  static Map<String, String> resolveUris(Environment environment, String baseUri) {
+    return Map.of(
+        "sign-in", baseUri + environment.getRequiredProperty("api.credentials.sign-in"),
+        "refresh-token", baseUri + environment.getRequiredProperty("api.credentials.refresh-token"),
+        "availability-by-date", baseUri + environment.getRequiredProperty("api.service.get-available-reservations-by-date"),
+        "availability-by-room", baseUri + environment.getRequiredProperty("api.service.get-available-reservations-by-room"),
+        "availability-matrix", baseUri + environment.getRequiredProperty("api.service.get-available-reservations-matrix"),
+        "reserve-room", baseUri + environment.getRequiredProperty("api.service.reserve-room"),
+        "cancel-reservation", baseUri + environment.getRequiredProperty("api.service.cancel-reservation"));
+  }
+
+  @Override
+  public void run() {
+    try {
+      signIn();
+      while (System.nanoTime() - deadlineNanos < 0) {
+        runNextOperation();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (IOException ex) {
+      throw new IllegalStateException("Client %s failed".formatted(username), ex);
+    }
+  }
+
+
+
+  private void runNextOperation() throws IOException, InterruptedException {
+    int choice = random.nextInt(options.totalWeight());
+    if ((choice -= options.availabilityByDateWeight()) < 0) {
+      get("availability-by-date", "date=" + randomDate(POLLED_DAYS));
+    } else if ((choice -= options.availabilityByRoomWeight()) < 0) {
+      get("availability-by-room", "roomTitle=" + encode(randomRoom()) + "&dayCount=7");
+    } else if ((choice -= options.availabilityMatrixWeight()) < 0) {
+      get("availability-matrix", "dayCount=7");
+    } else if ((choice -= options.reserveCancelWeight()) < 0) {
+      reserveAndCancel();
+    } else {
+      refresh();
+    }
+  }
+
+  private void reserveAndCancel() throws IOException, InterruptedException {
+    int hour = FIRST_OPEN_HOUR + random.nextInt(LAST_OPEN_HOUR - FIRST_OPEN_HOUR + 1);
+    String hotRoom = roomTitles.get(random.nextInt(Math.min(options.hotRoomCount(), roomTitles.size())));
+    Map<String, Object> body = Map.of(
+        "roomTitle", hotRoom, "date", randomDate(RESERVED_DAYS), "startHour", hour, "endHour", hour);
+
+    HttpResponse<String> response = send("reserve-room", authorized(HttpRequest.newBuilder(uri("reserve-room", null)))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    if (response != null && response.statusCode() == 401) {
+      signIn();
+    }
+    if (response == null || response.statusCode() != 200) {
+      return;
+    }
+
+    String reservationId = objectMapper.readTree(response.body()).path("reservationId").asText();
+    send("cancel-reservation", authorized(HttpRequest.newBuilder(
+        uri("cancel-reservation", "reservationId=" + encode(reservationId)))).DELETE());
+  }
+
+  private void refresh() throws IOException, InterruptedException {
+    Map<String, String> body = Map.of("accessToken", accessToken, "refreshToken", refreshToken);
+    HttpResponse<String> response = send("refresh-token", HttpRequest.newBuilder(uri("refresh-token", null))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    if (response != null && response.statusCode() == 200) {
+      storeTokens(response.body());
+    } else {
+      signIn();
+    }
+  }
+
+  private void get(String endpoint, String query) throws IOException, InterruptedException {
+    HttpResponse<String> response = send(endpoint, authorized(HttpRequest.newBuilder(uri(endpoint, query))).GET());
+    if (response != null && response.statusCode() == 401) {
+      signIn();
+    }
+  }
+
+  /**
+   * Sign-in is not measured; overload rejections of the password hashing executor are retried.
+   */
+  private void signIn() throws IOException, InterruptedException {
+    String body = objectMapper.writeValueAsString(Map.of("username", username, "password", DataSeeder.USER_PASSWORD));
+    for (int attempt = 1; attempt <= MAX_SIGN_IN_ATTEMPTS; ++attempt) {
+      HttpRequest request = HttpRequest.newBuilder(uri("sign-in", null))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(body))
+          .build();
+      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() == 200) {
+        storeTokens(response.body());
+        return;
+      }
+      Thread.sleep(Duration.ofMillis(100L * attempt));
+    }
+    throw new IllegalStateException("Client %s could not sign in".formatted(username));
+  }
+
+  private HttpResponse<String> send(String endpoint, HttpRequest.Builder request)
+      throws InterruptedException {
+    long startedAt = System.nanoTime();
+    HttpResponse<String> response;
+    try {
+      response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    } catch (IOException ex) {
+      report.record(endpoint, System.nanoTime() - startedAt, 0);
+      return null;
+    }
+    report.record(endpoint, System.nanoTime() - startedAt, response.statusCode());
+    return response;
+  }
+
+  private void storeTokens(String responseBody) throws IOException {
+    JsonNode tokens = objectMapper.readTree(responseBody);
+    accessToken = tokens.path("accessToken").asText();
+    refreshToken = tokens.path("refreshToken").asText();
+  }
+
+  private HttpRequest.Builder authorized(HttpRequest.Builder request) {
+    return request.header("Authorization", "Bearer " + accessToken);
+  }
+
+  private URI uri(String endpoint, String query) {
+    return URI.create(query == null ? uris.get(endpoint) : uris.get(endpoint) + "?" + query);
+  }
+
+  private String randomRoom() {
+    return roomTitles.get(random.nextInt(roomTitles.size()));
+  }
+
+  private String randomDate(int dayRange) {
+    return LocalDate.now(ZoneOffset.UTC).plusDays(random.nextInt(dayRange)).toString();
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
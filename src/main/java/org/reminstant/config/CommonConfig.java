@@ -2,12 +2,14 @@ package org.reminstant.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.FixedLocaleResolver;
 
 import java.util.Locale;
 
 @Configuration
+@EnableScheduling
 public class CommonConfig {
 
   @Bean
@@ -0,0 +1,52 @@
+package org.reminstant.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.reminstant.service.ReservationLockManager;
+import org.reminstant.service.RoomCatalogCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the counters that components already keep for the management endpoints.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  MeterBinder roomCatalogCacheMetrics(RoomCatalogCache cache) {
+    return registry -> {
+      FunctionCounter.builder("cache.gets", cache, RoomCatalogCache::getHitCount)
+          .tags("cache", "rooms", "result", "hit")
+          .register(registry);
+      FunctionCounter.builder("cache.gets", cache, RoomCatalogCache::getNegativeHitCount)
+          .tags("cache", "rooms", "result", "negative_hit")
+          .register(registry);
+      FunctionCounter.builder("cache.gets", cache, RoomCatalogCache::getMissCount)
+          .tags("cache", "rooms", "result", "miss")
+          .register(registry);
+      FunctionCounter.builder("cache.evictions", cache, RoomCatalogCache::getEvictionCount)
+          .tag("cache", "rooms")
+          .register(registry);
+      Gauge.builder("cache.size", cache, RoomCatalogCache::getSize)
+          .tag("cache", "rooms")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  MeterBinder reservationLockMetrics(ReservationLockManager lockManager) {
+    return registry -> {
+      FunctionCounter.builder("reservation.lock.acquisitions", lockManager,
+              ReservationLockManager::getAcquisitionCount)
+          .register(registry);
+      FunctionCounter.builder("reservation.lock.contended.acquisitions", lockManager,
+              ReservationLockManager::getContendedAcquisitionCount)
+          .register(registry);
+      FunctionCounter.builder("reservation.lock.fast.rejections", lockManager,
+              ReservationLockManager::getFastRejectionCount)
+          .register(registry);
+    };
+  }
+}
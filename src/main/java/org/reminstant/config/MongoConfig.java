@@ -1,5 +1,10 @@
 package org.reminstant.config;
 
+import org.bson.Document;
+import org.reminstant.model.WeeklySchedule;
+import org.reminstant.service.SlowMongoCommandLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -9,10 +14,13 @@ import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class MongoConfig {
@@ -26,10 +34,30 @@ public class MongoConfig {
   public MongoCustomConversions customConversions() {
     return new MongoCustomConversions(List.of(
         new OffsetDateTimeToDateConverter(),
-        new DateToOffsetDateTimeConverter()
+        new DateToOffsetDateTimeConverter(),
+        new WeeklyScheduleToDocumentConverter(),
+        new DocumentToWeeklyScheduleConverter()
     ));
   }
 
+  /**
+   * With virtual request threads the pool, not the thread count, bounds concurrent Mongo commands,
+   * so a short wait makes an exhausted pool fail requests instead of queueing them indefinitely.
+   */
+  @Bean
+  public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+      @Value("${mongodb.pool.max-size}") int maxSize,
+      @Value("${mongodb.pool.max-wait}") Duration maxWait) {
+    return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+        .maxSize(maxSize)
+        .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer slowCommandListener(SlowMongoCommandLog slowCommandLog) {
+    return builder -> builder.addCommandListener(slowCommandLog);
+  }
+
 
 
   @WritingConverter
@@ -47,4 +75,32 @@ public class MongoConfig {
       return source.toInstant().atOffset(ZoneOffset.UTC);
     }
   }
+
+  /**
+   * Weekly schedules are stored as {@code {monday: mask, ..., sunday: mask}}
+   */
+  @WritingConverter
+  private static class WeeklyScheduleToDocumentConverter implements Converter<WeeklySchedule, Document> {
+    @Override
+    public Document convert(WeeklySchedule source) {
+      Document document = new Document();
+      for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+        document.append(dayOfWeek.name().toLowerCase(), source.getMask(dayOfWeek));
+      }
+      return document;
+    }
+  }
+
+  @ReadingConverter
+  private static class DocumentToWeeklyScheduleConverter implements Converter<Document, WeeklySchedule> {
+    @Override
+    public WeeklySchedule convert(Document source) {
+      int[] masks = new int[WeeklySchedule.DAYS_PER_WEEK];
+      for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+        Integer mask = source.getInteger(dayOfWeek.name().toLowerCase());
+        masks[dayOfWeek.ordinal()] = mask != null ? mask : 0;
+      }
+      return WeeklySchedule.of(masks);
+    }
+  }
 }
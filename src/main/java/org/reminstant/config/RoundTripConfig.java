@@ -0,0 +1,146 @@
+package org.reminstant.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reminstant.filter.RoundTripFilter;
+import org.reminstant.service.RoundTrips;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Reports every operation of the Mongo, Postgres and Redis clients to {@link RoundTrips}
+ * and counts them per request.
+ */
+@Configuration
+public class RoundTripConfig {
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer roundTripCommandListener() {
+    return builder -> builder.addCommandListener(new CommandListener() {
+      @Override
+      public void commandStarted(CommandStartedEvent event) {
+        RoundTrips.record(RoundTrips.Store.MONGO);
+      }
+    });
+  }
+
+  /**
+   * Lettuce attaches command listeners to connections when they are opened, so the listener
+   * is added before the connection factory is handed to anyone.
+   */
+  @Bean
+  public static BeanPostProcessor roundTripStorePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof LettuceConnectionFactory connectionFactory) {
+          connectionFactory.getRequiredNativeClient().addListener(new io.lettuce.core.event.command.CommandListener() {
+            @Override
+            public void commandStarted(io.lettuce.core.event.command.CommandStartedEvent event) {
+              RoundTrips.record(RoundTrips.Store.REDIS);
+            }
+          });
+        }
+        if (bean instanceof DataSource dataSource && !(bean instanceof RoundTripDataSource)) {
+          return new RoundTripDataSource(dataSource);
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  public FilterRegistrationBean<RoundTripFilter> roundTripFilter(
+      MeterRegistry meterRegistry,
+      @Value("${round-trips.debug-header}") boolean headerEnabled) {
+    FilterRegistrationBean<RoundTripFilter> registration =
+        new FilterRegistrationBean<>(new RoundTripFilter(meterRegistry, headerEnabled));
+    // right after the security chain, so that authentication lookups are not counted
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    return registration;
+  }
+
+
+
+  /**
+   * Counts statement executions, commits and rollbacks; unwrapping still reaches the pool,
+   * so pool metrics keep working.
+   */
+  private static class RoundTripDataSource extends DelegatingDataSource {
+
+    RoundTripDataSource(DataSource targetDataSource) {
+      super(targetDataSource);
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+      return countingProxy(Connection.class, super.getConnection());
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+      return countingProxy(Connection.class, super.getConnection(username, password));
+    }
+
+    private static <T> T countingProxy(Class<T> type, T target) {
+      InvocationHandler handler = (proxy, method, args) -> {
+        String name = method.getName();
+        if (name.equals("equals")) {
+          return proxy == args[0];
+        }
+        if (name.equals("hashCode")) {
+          return System.identityHashCode(proxy);
+        }
+        if (name.startsWith("execute") || name.equals("commit") || name.equals("rollback")) {
+          RoundTrips.record(RoundTrips.Store.JDBC);
+        }
+        Object result = invoke(method, target, args);
+        return wrapStatement(result);
+      };
+      return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object wrapStatement(Object statement) {
+      if (statement instanceof CallableStatement callable) {
+        return countingProxy(CallableStatement.class, callable);
+      }
+      if (statement instanceof PreparedStatement prepared) {
+        return countingProxy(PreparedStatement.class, prepared);
+      }
+      if (statement instanceof Statement plain) {
+        return countingProxy(Statement.class, plain);
+      }
+      return statement;
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException ex) {
+        throw ex.getCause();
+      }
+    }
+  }
+}
@@ -26,6 +26,11 @@ public class SecurityConfig {
       "/swagger-ui/**",
       "/swagger-ui.html"
   };
+  private final String[] actuatorUrls = {
+      "/actuator/health",
+      "/actuator/health/**",
+      "/actuator/prometheus"
+  };
   @Value("${api.credentials.sign-up}")
   private String signUpUri;
   @Value("${api.credentials.sign-in}")
@@ -34,6 +39,8 @@ public class SecurityConfig {
   private String refreshTokenUri;
   @Value("${api.management.mask}")
   private String managementUriMask;
+  @Value("${security.password.bcrypt-strength}")
+  private int bcryptStrength;
 
 
   @Bean
@@ -47,6 +54,7 @@ public class SecurityConfig {
             .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(c -> c
             .requestMatchers(HttpMethod.GET, swaggerUrls).permitAll()
+            .requestMatchers(HttpMethod.GET, actuatorUrls).permitAll()
             .requestMatchers(HttpMethod.POST, signUpUri).permitAll()
             .requestMatchers(HttpMethod.POST, signInUri).permitAll()
             .requestMatchers(HttpMethod.POST, refreshTokenUri).permitAll()
@@ -61,6 +69,7 @@ public class SecurityConfig {
                                                   AuthenticationEntryPoint entryPoint) {
     var filter = new JwtAuthenticationFilter(jwtService, entryPoint);
     filter.addSkipUris(swaggerUrls);
+    filter.addSkipUris(actuatorUrls);
     filter.addSkipUris(signUpUri);
     filter.addSkipUri(signInUri);
     filter.addSkipUri(refreshTokenUri);
@@ -74,6 +83,6 @@ public class SecurityConfig {
 
   @Bean
   PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new BCryptPasswordEncoder(bcryptStrength);
   }
 }
@@ -15,6 +15,7 @@ import org.reminstant.dto.http.response.ProblemDetailDto;
 import org.reminstant.exception.AlreadyAuthorizedException;
 import org.reminstant.exception.InvalidCredentialsException;
 import org.reminstant.model.AppUser;
+import org.reminstant.model.TokenClaims;
 import org.reminstant.service.AppUserService;
 import org.reminstant.service.JwtService;
 import org.springframework.beans.factory.annotation.Value;
@@ -51,6 +52,9 @@ public class CredentialsController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "204", description = "OK", content = @Content),
       @ApiResponse(responseCode = "400", description = "Логин занят / Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "503", description = "Слишком много запросов авторизации", content = @Content(
           schema = @Schema(implementation = ProblemDetailDto.class),
           mediaType = MediaType.APPLICATION_JSON_VALUE))
   })
@@ -67,6 +71,9 @@ public class CredentialsController {
           schema = @Schema(implementation = JwtTokenDto.class),
           mediaType = MediaType.APPLICATION_JSON_VALUE)),
       @ApiResponse(responseCode = "400", description = "Недействительные учётные данные / Авторизация уже есть", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "503", description = "Слишком много запросов авторизации", content = @Content(
           schema = @Schema(implementation = ProblemDetailDto.class),
           mediaType = MediaType.APPLICATION_JSON_VALUE))
   })
@@ -119,23 +126,25 @@ public class CredentialsController {
           mediaType = MediaType.APPLICATION_JSON_VALUE))
   })
   ResponseEntity<Object> refreshToken(@RequestBody JwtTokenDto data) {
-    if (jwtService.isRefreshTokenInvalid(data.refreshToken())) {
-      throw new InvalidCredentialsException("Invalid refresh token");
-    }
-
-    String username;
-    String role;
+    TokenClaims claims;
+    long userId;
+    String refreshToken;
     try {
-      username = jwtService.extractUsername(data.refreshToken());
-      role = jwtService.extractRole(data.refreshToken());
-    } catch (JwtException ex) {
+      claims = jwtService.verify(data.refreshToken());
+      if (jwtService.isRefreshTokenInvalid(claims)) {
+        throw new InvalidCredentialsException("Invalid refresh token");
+      }
+      userId = jwtService.getUserId(claims);
+      refreshToken = jwtService.rotateRefreshToken(claims, userId, Duration.ofSeconds(refreshTokenTTL));
+    } catch (JwtException | UsernameNotFoundException ex) {
       throw new InvalidCredentialsException("Invalid refresh token");
     }
 
     jwtService.blacklistToken(data.accessToken(), Duration.ofSeconds(accessTokenTTL));
 
-    String accessToken = jwtService.generateAccessToken(username, role, Duration.ofSeconds(accessTokenTTL));
-    String refreshToken = jwtService.generateRefreshToken(username, role, Duration.ofSeconds(refreshTokenTTL));
+    String username = claims.username();
+    String role = claims.role();
+    String accessToken = jwtService.generateAccessToken(username, role, userId, Duration.ofSeconds(accessTokenTTL));
 
     return ResponseEntity.ok(new JwtTokenDto(accessToken, refreshToken));
   }
@@ -9,15 +9,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 import org.reminstant.dto.http.common.CommonUnavailableDaysDto;
 import org.reminstant.dto.http.common.RoomDto;
+import org.reminstant.dto.http.response.PasswordHashingStatsDto;
 import org.reminstant.dto.http.response.ProblemDetailDto;
+import org.reminstant.dto.http.response.ReservationContentionDto;
+import org.reminstant.dto.http.response.RoomCatalogCacheStatsDto;
 import org.reminstant.dto.http.response.RoomsListDto;
+import org.reminstant.dto.http.response.SlowMongoCommandsDto;
 import org.reminstant.model.CommonUnavailableDays;
 import org.reminstant.model.Room;
+import org.reminstant.service.AppUserService;
 import org.reminstant.service.RoomService;
+import org.reminstant.service.SlowMongoCommandLog;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -33,9 +41,14 @@ import java.util.*;
 public class ManagementController {
 
   private final RoomService roomService;
+  private final AppUserService appUserService;
+  private final SlowMongoCommandLog slowMongoCommandLog;
 
-  public ManagementController(RoomService roomService) {
+  public ManagementController(RoomService roomService, AppUserService appUserService,
+                              SlowMongoCommandLog slowMongoCommandLog) {
     this.roomService = roomService;
+    this.appUserService = appUserService;
+    this.slowMongoCommandLog = slowMongoCommandLog;
   }
 
   @GetMapping("${api.management.get-rooms}")
@@ -165,4 +178,64 @@ public class ManagementController {
 
     return ResponseEntity.noContent().build();
   }
+
+
+
+  @GetMapping("${api.management.get-reservation-contention}")
+  @Operation(summary = "Получение статистики конкуренции за бронирование помещений")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = ReservationContentionDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "400", description = "Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация / нет прав)", content = @Content)
+  })
+  ReservationContentionDto getReservationContention(
+      @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+      @Parameter(description = "Число помещений в списке наиболее конкурентных")
+      int roomCount) {
+    return roomService.getReservationContention(roomCount);
+  }
+
+  @GetMapping("${api.management.get-room-cache-stats}")
+  @Operation(summary = "Получение статистики кэша помещений")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = RoomCatalogCacheStatsDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация / нет прав)", content = @Content)
+  })
+  RoomCatalogCacheStatsDto getRoomCatalogCacheStats() {
+    return roomService.getRoomCatalogCacheStats();
+  }
+
+  @GetMapping("${api.management.get-password-hashing-stats}")
+  @Operation(summary = "Получение статистики хеширования паролей")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = PasswordHashingStatsDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация / нет прав)", content = @Content)
+  })
+  PasswordHashingStatsDto getPasswordHashingStats() {
+    return appUserService.getPasswordHashingStats();
+  }
+
+  @GetMapping("${api.management.get-slow-mongo-commands}")
+  @Operation(summary = "Получение медленных команд MongoDB и их планов выполнения")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = SlowMongoCommandsDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация / нет прав)", content = @Content)
+  })
+  SlowMongoCommandsDto getSlowMongoCommands() {
+    return slowMongoCommandLog.getSlowCommands();
+  }
 }
@@ -1,5 +1,7 @@
 package org.reminstant.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,15 +16,28 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 import org.reminstant.dto.http.response.*;
+import org.reminstant.dto.http.request.ReservationBatchRequestDto;
+import org.reminstant.dto.http.request.ReservationIdsDto;
 import org.reminstant.dto.http.request.ReservationRequestDto;
+import org.reminstant.dto.http.request.ReservationSeriesRequestDto;
+import org.reminstant.dto.http.request.ReservationSlotsRequestDto;
+import org.reminstant.filter.RoundTripBudget;
+import org.reminstant.model.AppUserPrincipal;
+import org.reminstant.model.BatchItemResult;
+import org.reminstant.model.FreeSlot;
 import org.reminstant.model.Reservation;
+import org.reminstant.model.ReservationSeriesResult;
 import org.reminstant.model.RoomDayRangeAvailability;
+import org.reminstant.model.RoomsAvailabilityMatrix;
 import org.reminstant.model.RoomsDayAvailability;
 import org.reminstant.service.RoomService;
+import org.reminstant.service.SlotMasks;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
 import java.util.List;
@@ -36,12 +51,15 @@ import java.util.Objects;
 public class ReservationServiceController {
 
   private final RoomService roomService;
+  private final ObjectMapper objectMapper;
 
-  public ReservationServiceController(RoomService roomService) {
+  public ReservationServiceController(RoomService roomService, ObjectMapper objectMapper) {
     this.roomService = roomService;
+    this.objectMapper = objectMapper;
   }
 
   @GetMapping("${api.service.get-rooms}")
+  @RoundTripBudget(1)
   @Operation(summary = "Получение списка помещений")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK", content = @Content(
@@ -102,7 +120,82 @@ public class ReservationServiceController {
     return roomService.convertAvailabilityToDto(avail);
   }
 
+  @GetMapping("${api.service.get-available-reservations-matrix}")
+  @RoundTripBudget(2)
+  @Operation(summary = "Получение времени, доступного для бронирования помещений, в диапазоне дат")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = RoomsAvailabilityMatrixDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "400", description = "Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация)", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Помещение не найдено", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE))
+  })
+  ResponseEntity<StreamingResponseBody> getAvailMatrix(
+      @RequestParam(required = false)
+      @Parameter(description = "Начало диапазона поиска, null == сегодняшний день (ISO 8601)", example = "2025-12-25")
+      String startDate,
+      @RequestParam(defaultValue = "7") @Min(1) @Max(30)
+      @Parameter(description = "Ширина диапазона в днях")
+      int dayCount,
+      @RequestParam(required = false) @Size(max = 1000)
+      @Parameter(description = "Идентификаторы помещений, null == все помещения")
+      List<String> roomTitles) {
+    RoomsAvailabilityMatrix matrix = roomService.getRoomsAvailabilityMatrix(startDate, dayCount, roomTitles);
+
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        roomService.writeAvailabilityMatrix(matrix, generator);
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(body);
+  }
+
+  @GetMapping("${api.service.find-free-slots}")
+  @RoundTripBudget(2)
+  @Operation(summary = "Поиск свободных интервалов заданной длины во всех помещениях")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = FreeSlotsDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "400", description = "Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация)", content = @Content)
+  })
+  FreeSlotsDto findFreeSlots(
+      @RequestParam @Min(1) @Max(24)
+      @Parameter(description = "Длина интервала в часах")
+      int duration,
+      @RequestParam(defaultValue = "0") @Min(0) @Max(23)
+      @Parameter(description = "Самый ранний час интервала (12:00-xx:xx)")
+      int earliestHour,
+      @RequestParam(defaultValue = "23") @Min(0) @Max(23)
+      @Parameter(description = "Самый поздний час интервала (xx:xx-17:59)")
+      int latestHour,
+      @RequestParam(required = false)
+      @Parameter(description = "Начало диапазона поиска, null == сегодняшний день (ISO 8601)", example = "2025-12-25")
+      String startDate,
+      @RequestParam(defaultValue = "1") @Min(1) @Max(30)
+      @Parameter(description = "Ширина диапазона в днях")
+      int dayCount,
+      @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+      @Parameter(description = "Максимальное число интервалов")
+      int limit) {
+    List<FreeSlot> slots = roomService.findFreeSlots(startDate, dayCount, duration, earliestHour, latestHour, limit);
+    return roomService.convertFreeSlotsToDto(slots);
+  }
+
   @GetMapping("${api.service.get-your-reservations}")
+  @RoundTripBudget(1)
   @Operation(summary = "Получение своих бронирований")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK", content = @Content(
@@ -113,13 +206,14 @@ public class ReservationServiceController {
   })
   ReservationsListDto getReservations(Principal principal) {
     Objects.requireNonNull(principal, "Principal must be non-null");
-    String username = principal.getName();
+    Long userId = getUserId(principal);
 
-    List<String> reservationIds = roomService.getActualReservationIds(username);
+    List<String> reservationIds = roomService.getActualReservationIds(userId);
     return new ReservationsListDto(reservationIds);
   }
 
   @GetMapping("${api.service.get-your-reservation-info}")
+  @RoundTripBudget(2)
   @Operation(summary = "Получение информации о своём бронировании")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK", content = @Content(
@@ -136,13 +230,14 @@ public class ReservationServiceController {
       @Parameter(description = "Идентификатор брони")
       String reservationId,
       Principal principal) {
-    String username = principal == null ? null : principal.getName();
+    Long userId = getUserId(principal);
 
-    Reservation reservation = roomService.getReservationById(username, reservationId);
+    Reservation reservation = roomService.getReservationById(userId, reservationId);
     return roomService.convertReservationToDto(reservation);
   }
 
   @PostMapping("${api.service.reserve-room}")
+  @RoundTripBudget(5)
   @Operation(summary = "Бронирование помещения")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK", content = @Content(
@@ -160,13 +255,40 @@ public class ReservationServiceController {
   ReservationIdDto reserveRoom(@Valid @RequestBody ReservationRequestDto dto,
                                Principal principal) {
     Objects.requireNonNull(principal, "Principal must be non-null");
-    String username = principal.getName();
-    String id = roomService.reserveRoom(username, dto.roomTitle(), dto.date(), dto.startHour(), dto.endHour());
+    Long userId = getUserId(principal);
+    String id = roomService.reserveRoom(userId, dto.roomTitle(), dto.date(), dto.startHour(), dto.endHour());
+
+    return new ReservationIdDto(id);
+  }
+
+  @PostMapping("${api.service.reserve-room-slots}")
+  @RoundTripBudget(5)
+  @Operation(summary = "Бронирование помещения с точностью до 15 минут")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = ReservationIdDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "400", description = "Выбранное время уже забронировано / Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация)", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Помещение не найдено", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE))
+  })
+  ReservationIdDto reserveRoomSlots(@Valid @RequestBody ReservationSlotsRequestDto dto,
+                                    Principal principal) {
+    Objects.requireNonNull(principal, "Principal must be non-null");
+    Long userId = getUserId(principal);
+    String id = roomService.reserveRoomSlots(userId, dto.roomTitle(), dto.date(),
+        SlotMasks.parseTime(dto.startTime()), SlotMasks.parseTime(dto.endTime()));
 
     return new ReservationIdDto(id);
   }
 
   @DeleteMapping("${api.service.cancel-reservation}")
+  @RoundTripBudget(3)
   @Operation(summary = "Отмена брони помещения")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "204", description = "OK", content = @Content),
@@ -182,9 +304,88 @@ public class ReservationServiceController {
       String reservationId,
       Principal principal) {
     Objects.requireNonNull(principal, "Principal must be non-null");
-    String username = principal.getName();
-    roomService.cancelReservation(username, reservationId);
+    Long userId = getUserId(principal);
+    roomService.cancelReservation(userId, reservationId);
 
     return ResponseEntity.noContent().build();
   }
+
+  @PostMapping("${api.service.reserve-rooms}")
+  @RoundTripBudget(5)
+  @Operation(summary = "Пакетное бронирование помещений (каждый элемент обрабатывается независимо)")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = ReservationBatchResultDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "400", description = "Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация)", content = @Content)
+  })
+  ReservationBatchResultDto reserveRooms(@Valid @RequestBody ReservationBatchRequestDto dto,
+                                         Principal principal) {
+    Objects.requireNonNull(principal, "Principal must be non-null");
+    Long userId = getUserId(principal);
+    List<BatchItemResult> results = roomService.reserveRooms(userId, dto.reservations());
+
+    return roomService.convertBatchResultsToDto(results);
+  }
+
+  @PostMapping("${api.service.reserve-room-series}")
+  @RoundTripBudget(6)
+  @Operation(summary = "Еженедельное бронирование помещения в выбранные дни недели")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = ReservationSeriesResultDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "400", description = "Нет дат в доступном периоде / Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация)", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Помещение не найдено", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE))
+  })
+  ReservationSeriesResultDto reserveRoomSeries(@Valid @RequestBody ReservationSeriesRequestDto dto,
+                                               Principal principal) {
+    Objects.requireNonNull(principal, "Principal must be non-null");
+    Long userId = getUserId(principal);
+    ReservationSeriesResult result = roomService.reserveRoomSeries(userId, dto);
+
+    return roomService.convertSeriesResultToDto(result);
+  }
+
+  @PostMapping("${api.service.cancel-reservations}")
+  @RoundTripBudget(4)
+  @Operation(summary = "Пакетная отмена броней помещений (каждый элемент обрабатывается независимо)")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK", content = @Content(
+          schema = @Schema(implementation = ReservationBatchResultDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "400", description = "Невалидные данные", content = @Content(
+          schema = @Schema(implementation = ProblemDetailDto.class),
+          mediaType = MediaType.APPLICATION_JSON_VALUE)),
+      @ApiResponse(responseCode = "401", description = "Невалидный/истёкший токен доступа", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Нет доступа (отсутствует авторизация)", content = @Content)
+  })
+  ReservationBatchResultDto cancelReservations(@Valid @RequestBody ReservationIdsDto dto,
+                                               Principal principal) {
+    Objects.requireNonNull(principal, "Principal must be non-null");
+    Long userId = getUserId(principal);
+    List<BatchItemResult> results = roomService.cancelReservations(userId, dto.reservationIds());
+
+    return roomService.convertBatchResultsToDto(results);
+  }
+
+
+
+  private Long getUserId(Principal principal) {
+    if (principal instanceof Authentication authentication
+        && authentication.getPrincipal() instanceof AppUserPrincipal user) {
+      return user.userId();
+    }
+    return null;
+  }
 }
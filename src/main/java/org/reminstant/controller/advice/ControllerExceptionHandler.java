@@ -118,6 +118,22 @@ public class ControllerExceptionHandler extends ResponseEntityExceptionHandler {
         URI.create(request.getRequestURI()), ex.getMessage());
   }
 
+  @ExceptionHandler(PasswordHashingOverloadedException.class)
+  public ResponseEntity<Object> handlePasswordHashingOverloadedException(HttpServletRequest request) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, "1");
+    return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, headers,
+        URI.create(request.getRequestURI()), "Too many authorization requests, try again later");
+  }
+
+  @ExceptionHandler(LookupDeadlineExceededException.class)
+  public ResponseEntity<Object> handleLookupDeadlineExceededException(LookupDeadlineExceededException ex,
+                                                                      HttpServletRequest request) {
+    String detail = "Data sources did not respond within %d ms".formatted(ex.getDeadline().toMillis());
+    return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, null,
+        URI.create(request.getRequestURI()), detail);
+  }
+
 
 
   private ResponseEntity<Object> buildResponse(HttpStatusCode status, HttpHeaders headers,
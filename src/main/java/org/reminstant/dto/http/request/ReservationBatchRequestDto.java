@@ -0,0 +1,16 @@
+package org.reminstant.dto.http.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Данные для пакетного бронирования", accessMode = Schema.AccessMode.WRITE_ONLY)
+public record ReservationBatchRequestDto(
+    @NotEmpty @Size(max = 50)
+    @Schema(description = "Бронирования, обрабатываемые независимо друг от друга")
+    List<@NotNull @Valid ReservationRequestDto> reservations) {
+}
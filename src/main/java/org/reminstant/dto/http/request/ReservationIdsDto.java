@@ -0,0 +1,15 @@
+package org.reminstant.dto.http.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Идентификаторы броней для пакетной отмены", accessMode = Schema.AccessMode.WRITE_ONLY)
+public record ReservationIdsDto(
+    @NotEmpty @Size(max = 50)
+    @Schema(description = "Идентификаторы броней")
+    List<@NotBlank @Size(min = 24, max = 24) String> reservationIds) {
+}
@@ -0,0 +1,41 @@
+package org.reminstant.dto.http.request;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+import org.reminstant.model.ReservationSeriesMode;
+
+import java.time.DayOfWeek;
+import java.util.Set;
+
+@Schema(description = "Данные для еженедельного бронирования", accessMode = Schema.AccessMode.WRITE_ONLY)
+public record ReservationSeriesRequestDto(
+    @NotBlank @Size(min = 1, max = 32)
+    @Schema(description = "Идентификатор помещения", example = "A-423")
+    String roomTitle,
+    @Size(min = 10, max = 10)
+    @Schema(description = "Начало серии, null == сегодняшний день (ISO 8601)", example = "2025-12-25")
+    String startDate,
+    @NotEmpty
+    @Schema(description = "Дни недели", example = "[\"TUESDAY\"]")
+    Set<@NotNull DayOfWeek> daysOfWeek,
+    @NotNull @Min(0) @Max(23)
+    @Schema(description = "Первый час брони (10:00-xx:xx)", example = "10")
+    Integer startHour,
+    @NotNull @Min(0) @Max(23)
+    @Schema(description = "Последний час брони (xx:xx-11:59)", example = "11")
+    Integer endHour,
+    @Min(1) @Max(5)
+    @Schema(description = "Число недель, null == до конца доступного для бронирования периода", example = "4")
+    Integer weekCount,
+    @NotNull
+    @Schema(description = "ALL_OR_NOTHING - все даты или ни одной, BEST_EFFORT - все доступные даты",
+        example = "ALL_OR_NOTHING")
+    ReservationSeriesMode mode) {
+
+    @Hidden
+    @AssertTrue(message = "startHour mast be less or equal to endHour")
+    public boolean getHourRangeValidity() {
+        return startHour <= endHour;
+    }
+}
@@ -0,0 +1,27 @@
+package org.reminstant.dto.http.request;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+
+@Schema(description = "Данные для бронирования с точностью до 15 минут", accessMode = Schema.AccessMode.WRITE_ONLY)
+public record ReservationSlotsRequestDto(
+    @NotBlank @Size(min = 1, max = 32)
+    @Schema(description = "Идентификатор помещения", example = "A-423")
+    String roomTitle,
+    @NotBlank @Size(min = 10, max = 10)
+    @Schema(description = "Дата бронирования (ISO 8601)", example = "2025-12-25")
+    String date,
+    @NotNull @Pattern(regexp = "([01]\\d|2[0-3]):(00|15|30|45)")
+    @Schema(description = "Начало брони (кратно 15 минутам)", example = "12:15")
+    String startTime,
+    @NotNull @Pattern(regexp = "([01]\\d|2[0-3]):(00|15|30|45)|24:00")
+    @Schema(description = "Конец брони, не включительно (кратно 15 минутам)", example = "13:45")
+    String endTime) {
+
+    @Hidden
+    @AssertTrue(message = "startTime mast be less than endTime")
+    public boolean getTimeRangeValidity() {
+        return startTime == null || endTime == null || startTime.compareTo(endTime) < 0;
+    }
+}
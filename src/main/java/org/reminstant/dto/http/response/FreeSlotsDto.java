@@ -0,0 +1,25 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    description = "Свободные интервалы для бронирования в порядке времени начала",
+    accessMode = Schema.AccessMode.READ_ONLY)
+public record FreeSlotsDto(
+    List<Slot> slots) {
+
+  @Hidden
+  public record Slot(
+      @Schema(description = "Идентификатор помещения", example = "A-423")
+      String roomTitle,
+      @Schema(description = "Дата (ISO 8601)", example = "2025-12-25")
+      String date,
+      @Schema(description = "Первый час интервала (12:00-xx:xx)", example = "12")
+      int startHour,
+      @Schema(description = "Последний час интервала (xx:xx-13:59)", example = "13")
+      int endHour) {
+  }
+}
@@ -0,0 +1,37 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    description = "Статистика хеширования паролей с момента запуска узла",
+    accessMode = Schema.AccessMode.READ_ONLY)
+public record PasswordHashingStatsDto(
+    @Schema(description = "Число потоков, занятых хешированием", example = "4")
+    int activeThreads,
+    @Schema(description = "Число запросов в очереди", example = "12")
+    int queued,
+    @Schema(description = "Ёмкость очереди", example = "64")
+    int queueCapacity,
+    @Schema(description = "Статистика по операциям")
+    List<OperationStatsDto> operations) {
+
+  @Schema(
+      description = "Статистика хеширования паролей одной операции",
+      accessMode = Schema.AccessMode.READ_ONLY)
+  public record OperationStatsDto(
+      @Schema(description = "Операция", example = "sign-in")
+      String operation,
+      @Schema(description = "Число принятых запросов", example = "1500")
+      long submitted,
+      @Schema(description = "Число запросов, отклонённых из-за переполнения очереди", example = "20")
+      long rejected,
+      @Schema(description = "Число выполненных запросов", example = "1480")
+      long completed,
+      @Schema(description = "Среднее время ожидания в очереди (мс)", example = "35.5")
+      double averageQueueMillis,
+      @Schema(description = "Среднее время хеширования (мс)", example = "80.2")
+      double averageHashMillis) {
+  }
+}
@@ -0,0 +1,23 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    description = "Результаты пакетной операции в порядке элементов запроса",
+    accessMode = Schema.AccessMode.READ_ONLY)
+public record ReservationBatchResultDto(
+    List<ItemResult> results) {
+
+  @Hidden
+  public record ItemResult(
+      @Schema(description = "Идентификатор брони", example = "6812a4f0c3b1e25d7c9a0b11")
+      String reservationId,
+      @Schema(description = "Успешность операции", example = "false")
+      boolean succeeded,
+      @Schema(description = "Описание ошибки, null при успехе", example = "Already reserved")
+      String error) {
+  }
+}
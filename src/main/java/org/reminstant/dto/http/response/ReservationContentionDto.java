@@ -0,0 +1,28 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    description = "Статистика конкуренции за бронирование помещений с момента запуска узла",
+    accessMode = Schema.AccessMode.READ_ONLY)
+public record ReservationContentionDto(
+    @Schema(description = "Число захватов блокировок (помещение, дата)", example = "1500")
+    long acquisitions,
+    @Schema(description = "Число захватов, потребовавших ожидания", example = "42")
+    long contendedAcquisitions,
+    @Schema(description = "Число бронирований, отклонённых без обращения к БД", example = "17")
+    long fastRejections,
+    @Schema(description = "Помещения с наибольшим числом ожиданий")
+    List<RoomContention> hottestRooms) {
+
+  @Hidden
+  public record RoomContention(
+      @Schema(description = "Идентификатор помещения", example = "A-423")
+      String roomTitle,
+      @Schema(description = "Число захватов, потребовавших ожидания", example = "12")
+      long contendedAcquisitions) {
+  }
+}
@@ -11,5 +11,9 @@ public record ReservationParamsDto(
     @Schema(description = "Первый час брони (12:00-xx:xx)", example = "12")
     Integer startHour,
     @Schema(description = "Последний час брони (xx:xx-14:59)", example = "14")
-    Integer endHour) {
+    Integer endHour,
+    @Schema(description = "Начало брони", example = "12:00")
+    String startTime,
+    @Schema(description = "Конец брони, не включительно", example = "15:00")
+    String endTime) {
 }
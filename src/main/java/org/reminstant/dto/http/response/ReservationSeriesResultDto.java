@@ -0,0 +1,25 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Результаты еженедельного бронирования по датам", accessMode = Schema.AccessMode.READ_ONLY)
+public record ReservationSeriesResultDto(
+    @Schema(description = "Идентификатор помещения", example = "A-423")
+    String roomTitle,
+    List<OccurrenceResult> occurrences) {
+
+  @Hidden
+  public record OccurrenceResult(
+      @Schema(description = "Дата (ISO 8601)", example = "2025-12-25")
+      String date,
+      @Schema(description = "Идентификатор брони", example = "6812a4f0c3b1e25d7c9a0b11")
+      String reservationId,
+      @Schema(description = "Успешность бронирования", example = "true")
+      boolean succeeded,
+      @Schema(description = "Описание ошибки, null при успехе", example = "Already reserved")
+      String error) {
+  }
+}
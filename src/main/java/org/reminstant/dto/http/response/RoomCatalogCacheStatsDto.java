@@ -0,0 +1,19 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+    description = "Статистика кэша помещений с момента запуска узла",
+    accessMode = Schema.AccessMode.READ_ONLY)
+public record RoomCatalogCacheStatsDto(
+    @Schema(description = "Число помещений в кэше", example = "120")
+    int size,
+    @Schema(description = "Число обращений, обслуженных кэшем", example = "15000")
+    long hits,
+    @Schema(description = "Число обращений к неизвестным помещениям, обслуженных кэшем", example = "30")
+    long negativeHits,
+    @Schema(description = "Число обращений, потребовавших чтения из БД", example = "250")
+    long misses,
+    @Schema(description = "Число вытесненных записей", example = "0")
+    long evictions) {
+}
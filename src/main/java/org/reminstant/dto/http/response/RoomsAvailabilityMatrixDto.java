@@ -0,0 +1,25 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    description = "Часы, доступные для бронирования помещений, в диапазоне дат",
+    accessMode = Schema.AccessMode.READ_ONLY)
+public record RoomsAvailabilityMatrixDto(
+    @Schema(description = "Начало диапазона (ISO 8601)", example = "2025-12-25")
+    String startDate,
+    @Schema(description = "Даты диапазона (ISO 8601)")
+    List<String> dates,
+    List<RoomAvailability> roomAvailability) {
+
+  @Hidden
+  public record RoomAvailability(
+      @Schema(description = "Идентификатор помещения", example = "A-423")
+      String roomTitle,
+      @Schema(description = "Часы, доступные для бронирования помещения, по датам диапазона")
+      List<List<Integer>> hours) {
+  }
+}
@@ -0,0 +1,49 @@
+package org.reminstant.dto.http.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    description = "Медленные команды MongoDB с момента запуска узла",
+    accessMode = Schema.AccessMode.READ_ONLY)
+public record SlowMongoCommandsDto(
+    @Schema(description = "Порог, начиная с которого команда считается медленной (мс)", example = "100")
+    long thresholdMillis,
+    @Schema(description = "Число медленных команд, не учтённых из-за ограничения на число форм", example = "0")
+    long untrackedCommands,
+    @Schema(description = "Число команд, время которых не измерено из-за ограничения на число выполняющихся команд",
+        example = "0")
+    long unmeasuredCommands,
+    @Schema(description = "Формы медленных команд по убыванию суммарного времени")
+    List<CommandShapeDto> shapes) {
+
+  @Schema(
+      description = "Медленные команды одной формы",
+      accessMode = Schema.AccessMode.READ_ONLY)
+  public record CommandShapeDto(
+      @Schema(description = "Команда", example = "aggregate")
+      String command,
+      @Schema(description = "Коллекция", example = "reservations")
+      String collection,
+      @Schema(description = "Команда с заменёнными на '?' значениями",
+          example = "{\"aggregate\": \"reservations\", \"pipeline\": [{\"$match\": {\"roomId\": \"?\"}}]}")
+      String shape,
+      @Schema(description = "Число медленных выполнений", example = "42")
+      long count,
+      @Schema(description = "Среднее время медленного выполнения (мс)", example = "180.5")
+      double averageMillis,
+      @Schema(description = "Наибольшее время выполнения (мс)", example = "950.0")
+      double maxMillis,
+      @Schema(description = "Время последнего медленного выполнения", example = "2025-03-01T12:00:00Z")
+      String lastSeenAt,
+      @Schema(description = "Состояние плана выполнения", example = "CAPTURED")
+      String explainStatus,
+      @Schema(description = "Стадии выбранного плана от корня к листьям", example = "[\"FETCH\", \"IXSCAN\"]")
+      List<String> planStages,
+      @Schema(description = "Есть ли в плане полный просмотр коллекции", example = "false")
+      Boolean collectionScan,
+      @Schema(description = "Выбранный план (JSON)")
+      String winningPlan) {
+  }
+}
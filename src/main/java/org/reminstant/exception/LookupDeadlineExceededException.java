@@ -0,0 +1,15 @@
+package org.reminstant.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class LookupDeadlineExceededException extends RuntimeException {
+
+  private final Duration deadline;
+
+  public LookupDeadlineExceededException(Duration deadline) {
+    this.deadline = deadline;
+  }
+}
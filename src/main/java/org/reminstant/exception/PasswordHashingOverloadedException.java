@@ -0,0 +1,13 @@
+package org.reminstant.exception;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+  private final String operation;
+
+  public PasswordHashingOverloadedException(String operation) {
+    this.operation = operation;
+  }
+}
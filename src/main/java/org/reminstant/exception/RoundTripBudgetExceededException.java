@@ -0,0 +1,16 @@
+package org.reminstant.exception;
+
+import lombok.Getter;
+
+@Getter
+public class RoundTripBudgetExceededException extends RuntimeException {
+
+  private final int budget;
+  private final int actual;
+
+  public RoundTripBudgetExceededException(int budget, int actual, String counts) {
+    super("%d round trips exceed the budget of %d (%s)".formatted(actual, budget, counts));
+    this.budget = budget;
+    this.actual = actual;
+  }
+}
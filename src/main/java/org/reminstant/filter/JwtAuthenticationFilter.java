@@ -5,11 +5,14 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.reminstant.model.AppUserPrincipal;
+import org.reminstant.model.TokenClaims;
 import org.reminstant.service.JwtService;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 import org.springframework.util.AntPathMatcher;
@@ -61,23 +64,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     if (tokenBearer != null && tokenBearer.startsWith(AUTHORIZATION_PREFIX)) {
       String token = tokenBearer.substring(AUTHORIZATION_PREFIX.length());
 
-      if (jwtService.isAccessTokenInvalid(token)) {
-        entryPoint.commence(request, response, new BadCredentialsException("Bad credentials"));
-        return;
-      }
-
-      String username;
-      String authority;
+      TokenClaims claims;
+      long userId;
       try {
-        username = jwtService.extractUsername(token);
-        authority = ROLE_PREFIX + jwtService.extractRole(token);
-      } catch (JwtException ex) {
+        claims = jwtService.verify(token);
+        if (jwtService.isAccessTokenInvalid(claims)) {
+          entryPoint.commence(request, response, new BadCredentialsException("Bad credentials"));
+          return;
+        }
+        userId = jwtService.getUserId(claims);
+      } catch (JwtException | UsernameNotFoundException ex) {
         entryPoint.commence(request, response, new BadCredentialsException("Bad credentials", ex));
         return;
       }
 
+      String authority = ROLE_PREFIX + claims.role();
       PreAuthenticatedAuthenticationToken authToken = new PreAuthenticatedAuthenticationToken(
-          username, token, List.of(new SimpleGrantedAuthority(authority)));
+          new AppUserPrincipal(claims.username(), userId), token, List.of(new SimpleGrantedAuthority(authority)));
       SecurityContextHolder.getContext().setAuthentication(authToken);
     }
 
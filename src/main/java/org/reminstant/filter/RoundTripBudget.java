@@ -0,0 +1,17 @@
+package org.reminstant.filter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of store operations a handler may issue per request, cache reloads included.
+ * Requests over the budget are reported by {@link RoundTripFilter}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RoundTripBudget {
+
+  int value();
+}
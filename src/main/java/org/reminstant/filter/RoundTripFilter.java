@@ -0,0 +1,91 @@
+package org.reminstant.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.reminstant.service.RoundTrips;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the store operations of every authenticated request, records them per store and endpoint
+ * and reports handlers that exceed their {@link RoundTripBudget}. Authentication itself runs
+ * before this filter and is not counted.
+ * <p>
+ * Optionally the counts are returned in the {@value #HEADER} header. The header is written when
+ * the response is committed, so operations issued while streaming the body are not included.
+ */
+@Slf4j
+public class RoundTripFilter extends OncePerRequestFilter {
+
+  public static final String HEADER = "X-Round-Trips";
+
+  private static final String METRIC = "http.server.round.trips";
+  private static final String UNKNOWN_URI = "UNKNOWN";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean headerEnabled;
+
+  public RoundTripFilter(MeterRegistry meterRegistry, boolean headerEnabled) {
+    this.meterRegistry = meterRegistry;
+    this.headerEnabled = headerEnabled;
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response,
+                                  @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    try (RoundTrips.Scope scope = RoundTrips.open()) {
+      HttpServletResponse countedResponse = response;
+      if (headerEnabled) {
+        countedResponse = new OnCommittedResponseWrapper(response) {
+          @Override
+          protected void onResponseCommitted() {
+            setHeader(HEADER, scope.toString());
+          }
+        };
+      }
+
+      filterChain.doFilter(request, countedResponse);
+
+      if (headerEnabled && !response.isCommitted()) {
+        response.setHeader(HEADER, scope.toString());
+      }
+      record(request, scope);
+    }
+  }
+
+  private void record(HttpServletRequest request, RoundTrips.Scope scope) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+    for (RoundTrips.Store store : RoundTrips.Store.values()) {
+      DistributionSummary.builder(METRIC)
+          .tags("store", store.tag(), "uri", uri)
+          .register(meterRegistry)
+          .record(scope.getCount(store));
+    }
+
+    if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+      RoundTripBudget budget = handler.getMethodAnnotation(RoundTripBudget.class);
+      if (budget != null && scope.getTotal() > budget.value()) {
+        Counter.builder(METRIC + ".budget.exceeded")
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .increment();
+        log.warn("{} {} exceeded its budget of {} round trips: {}",
+            request.getMethod(), uri, budget.value(), scope);
+      }
+    }
+  }
+}
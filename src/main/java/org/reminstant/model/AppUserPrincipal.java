@@ -0,0 +1,14 @@
+package org.reminstant.model;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Authenticated user as resolved from the access token.
+ */
+public record AppUserPrincipal(String username, Long userId) implements AuthenticatedPrincipal {
+
+  @Override
+  public String getName() {
+    return username;
+  }
+}
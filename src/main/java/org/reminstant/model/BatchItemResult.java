@@ -0,0 +1,24 @@
+package org.reminstant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BatchItemResult {
+
+  private String reservationId;
+  private String error;
+
+  public static BatchItemResult succeeded(String reservationId) {
+    return new BatchItemResult(reservationId, null);
+  }
+
+  public static BatchItemResult failed(String reservationId, String error) {
+    return new BatchItemResult(reservationId, error);
+  }
+
+  public boolean isSucceeded() {
+    return error == null;
+  }
+}
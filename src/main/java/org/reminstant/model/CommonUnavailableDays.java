@@ -1,7 +1,6 @@
 package org.reminstant.model;
 
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -17,16 +16,11 @@ public class CommonUnavailableDays {
 
   private String configName;
 
-  private Integer monday;
-  private Integer tuesday;
-  private Integer wednesday;
-  private Integer thursday;
-  private Integer friday;
-  private Integer saturday;
-  private Integer sunday;
+  private WeeklySchedule weeklyUnavailability;
 
   public CommonUnavailableDays() {
     this.id = "config";
     this.configName = CONFIG_NAME;
+    this.weeklyUnavailability = WeeklySchedule.EMPTY;
   }
 }
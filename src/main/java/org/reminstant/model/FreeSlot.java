@@ -0,0 +1,15 @@
+package org.reminstant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@AllArgsConstructor
+public class FreeSlot {
+  private String roomTitle;
+  private OffsetDateTime date;
+  private int startHour;
+  private int endHour;
+}
@@ -3,6 +3,8 @@ package org.reminstant.model;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -13,25 +15,39 @@ import java.time.OffsetDateTime;
 @Getter
 @Setter
 @Document(collection = "reservations")
+@CompoundIndexes({
+    @CompoundIndex(name = "roomId_date", def = "{'roomId': 1, 'date': 1}"),
+    @CompoundIndex(name = "userId_date", def = "{'userId': 1, 'date': 1}")
+})
 public class Reservation {
 
   @Id
   private String id;
 
-  @Indexed()
   private String roomId;
 
   private Long userId;
 
+  @Indexed
   @Field(targetType = FieldType.STRING)
   private OffsetDateTime date;
 
+  /**
+   * Hours touched by the reservation, kept alongside the slots for hour-based readers
+   */
   private Integer reservationMask;
 
-  public Reservation(String roomId, Long userId, OffsetDateTime date, Integer reservationMask) {
+  private Long slotMaskLow;
+
+  private Long slotMaskHigh;
+
+  public Reservation(String roomId, Long userId, OffsetDateTime date, Integer reservationMask,
+                     Long slotMaskLow, Long slotMaskHigh) {
     this.roomId = roomId;
     this.userId = userId;
     this.date = date;
     this.reservationMask = reservationMask;
+    this.slotMaskLow = slotMaskLow;
+    this.slotMaskHigh = slotMaskHigh;
   }
 }
@@ -0,0 +1,6 @@
+package org.reminstant.model;
+
+public enum ReservationSeriesMode {
+  ALL_OR_NOTHING,
+  BEST_EFFORT
+}
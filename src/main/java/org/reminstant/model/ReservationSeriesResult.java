@@ -0,0 +1,30 @@
+package org.reminstant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ReservationSeriesResult {
+
+  @Getter
+  @Setter
+  @AllArgsConstructor
+  public static class Occurrence {
+    private OffsetDateTime date;
+    private BatchItemResult result;
+  }
+
+  private String roomTitle;
+  private List<Occurrence> occurrences;
+
+  public ReservationSeriesResult(String roomTitle) {
+    this.roomTitle = roomTitle;
+    this.occurrences = new ArrayList<>();
+  }
+}
@@ -11,28 +11,16 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Document(collection = "rooms")
 public class Room {
 
-  @Getter
-  @Setter
-  public static class UnavailabilityMasks {
-    private Integer monday;
-    private Integer tuesday;
-    private Integer wednesday;
-    private Integer thursday;
-    private Integer friday;
-    private Integer saturday;
-    private Integer sunday;
-  }
-
   @Id
   private String id;
 
   @Indexed(unique = true)
   private String roomTitle;
 
-  private UnavailabilityMasks unavailabilityMasks; // TODO: EnumMap<DayOfWeek, Integer>
+  private WeeklySchedule weeklyUnavailability;
 
   public Room(String roomTitle) {
     this.roomTitle = roomTitle;
-    this.unavailabilityMasks = new UnavailabilityMasks();
+    this.weeklyUnavailability = WeeklySchedule.EMPTY;
   }
 }
@@ -0,0 +1,39 @@
+package org.reminstant.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Document(collection = "occupancy")
+@CompoundIndex(name = "roomId_date", def = "{'roomId': 1, 'date': 1}", unique = true)
+public class RoomDayOccupancy {
+
+  @Id
+  private String id;
+
+  private String roomId;
+
+  @Indexed
+  @Field(targetType = FieldType.STRING)
+  private OffsetDateTime date;
+
+  private Long slotsLow;
+
+  private Long slotsHigh;
+
+  public RoomDayOccupancy(String roomId, OffsetDateTime date, Long slotsLow, Long slotsHigh) {
+    this.roomId = roomId;
+    this.date = date;
+    this.slotsLow = slotsLow;
+    this.slotsHigh = slotsHigh;
+  }
+}
@@ -0,0 +1,20 @@
+package org.reminstant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Available hour masks of several rooms over consecutive days:
+ * {@code masks[room][day]} belongs to {@code roomTitles.get(room)} and {@code startDate + day}.
+ */
+@Getter
+@AllArgsConstructor
+public class RoomsAvailabilityMatrix {
+  private OffsetDateTime startDate;
+  private int dayCount;
+  private List<String> roomTitles;
+  private int[][] masks;
+}
@@ -0,0 +1,16 @@
+package org.reminstant.model;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiration have been verified.
+ * {@code tokenId} is the digest of the token, {@code userId} is absent in tokens issued
+ * before the claim was introduced, {@code version} is present in refresh tokens only.
+ */
+public record TokenClaims(String tokenId, String username, String role, Long userId, Long version,
+                          Instant expiresAt) {
+
+  public boolean isRefreshToken() {
+    return version != null;
+  }
+}
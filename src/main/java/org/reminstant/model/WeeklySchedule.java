@@ -0,0 +1,44 @@
+package org.reminstant.model;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+
+/**
+ * Immutable hour masks for every day of week, indexed by {@link DayOfWeek#ordinal()}.
+ */
+public final class WeeklySchedule {
+
+  public static final int DAYS_PER_WEEK = 7;
+  public static final WeeklySchedule EMPTY = new WeeklySchedule(new int[DAYS_PER_WEEK]);
+
+  private final int[] masks;
+
+  private WeeklySchedule(int[] masks) {
+    this.masks = masks;
+  }
+
+  public static WeeklySchedule of(int[] masks) {
+    if (masks.length != DAYS_PER_WEEK) {
+      throw new IllegalArgumentException("Weekly schedule must consist of 7 masks");
+    }
+    return new WeeklySchedule(masks.clone());
+  }
+
+  public int getMask(DayOfWeek dayOfWeek) {
+    return masks[dayOfWeek.ordinal()];
+  }
+
+  public int[] toArray() {
+    return masks.clone();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof WeeklySchedule other && Arrays.equals(masks, other.masks);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(masks);
+  }
+}
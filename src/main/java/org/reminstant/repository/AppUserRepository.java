@@ -1,6 +1,7 @@
 package org.reminstant.repository;
 
 import org.reminstant.model.AppUser;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +13,7 @@ public interface AppUserRepository extends CrudRepository<AppUser, Long> {
   Optional<AppUser> getAppUserByUsername(String username);
 
   boolean existsAppUserByUsername(String username);
+
+  @Query("select u.id from AppUser u where u.username = :username")
+  Optional<Long> getAppUserIdByUsername(String username);
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package org.reminstant.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.reminstant.dto.http.response.PasswordHashingStatsDto;
 import org.reminstant.exception.InvalidCredentialsException;
 import org.reminstant.exception.OccupiedUsernameException;
 import org.reminstant.model.AppUser;
 import org.reminstant.repository.AppUserRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,15 +20,40 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 @Slf4j
 @Service
 public class AppUserService implements UserDetailsService {
 
+  private record TokenVersion(long version, long expiresAtNanos) {
+  }
+
+  private static final String INCREMENT_TOKEN_VERSION_SQL =
+      "UPDATE app_user SET token_version = COALESCE(token_version, 0) + 1 WHERE username = ? RETURNING token_version";
+  private static final String ROTATE_TOKEN_VERSION_SQL =
+      "UPDATE app_user SET token_version = COALESCE(token_version, 0) + 1"
+          + " WHERE username = ? AND COALESCE(token_version, 0) = ? RETURNING token_version";
+  private static final String USER_QUERY_METRIC = "user.queries";
+
   private final AppUserRepository appUserRepository;
   private final PasswordEncoder passwordEncoder;
+  private final PasswordHashingExecutor passwordHashingExecutor;
   private final JdbcTemplate jdbcTemplate;
+  private final Map<String, Long> userIds;
+  private final Map<String, TokenVersion> tokenVersions;
+  private final long tokenVersionTtlNanos;
+
+  private final Timer userQueries;
+  private final Timer userIdQueries;
+  private final Timer tokenVersionIncrements;
 
   @Value("${admin-user-details.username}")
   private String adminUsername;
@@ -33,10 +62,33 @@ public class AppUserService implements UserDetailsService {
 
   public AppUserService(AppUserRepository appUserRepository,
                         PasswordEncoder passwordEncoder,
-                        JdbcTemplate jdbcTemplate) {
+                        PasswordHashingExecutor passwordHashingExecutor,
+                        JdbcTemplate jdbcTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${cache.user-ids.max-size}") int userIdCacheSize,
+                        @Value("${cache.token-versions.max-size}") int tokenVersionCacheSize,
+                        @Value("${cache.token-versions.ttl}") Duration tokenVersionTtl) {
     this.appUserRepository = appUserRepository;
     this.passwordEncoder = passwordEncoder;
+    this.passwordHashingExecutor = passwordHashingExecutor;
     this.jdbcTemplate = jdbcTemplate;
+    this.userIds = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        return size() > userIdCacheSize;
+      }
+    });
+    this.tokenVersions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, TokenVersion> eldest) {
+        return size() > tokenVersionCacheSize;
+      }
+    });
+    this.tokenVersionTtlNanos = tokenVersionTtl.toNanos();
+
+    this.userQueries = meterRegistry.timer(USER_QUERY_METRIC, "query", "user");
+    this.userIdQueries = meterRegistry.timer(USER_QUERY_METRIC, "query", "user_id");
+    this.tokenVersionIncrements = meterRegistry.timer(USER_QUERY_METRIC, "query", "token_version_increment");
   }
 
   @PostConstruct
@@ -68,7 +120,9 @@ public class AppUserService implements UserDetailsService {
         .build();
   }
 
-  @Transactional
+  /**
+   * Not transactional, so that no connection is held while the password waits to be hashed.
+   */
   public void registerUser(String username, String password, String role)
       throws InvalidCredentialsException, OccupiedUsernameException {
     if (username == null) {
@@ -81,7 +135,7 @@ public class AppUserService implements UserDetailsService {
       throw new OccupiedUsernameException("Username is occupied");
     }
 
-    String encodedPassword = passwordEncoder.encode(password);
+    String encodedPassword = passwordHashingExecutor.encode("sign-up", password);
     appUserRepository.save(new AppUser(username, encodedPassword, role));
   }
 
@@ -90,24 +144,103 @@ public class AppUserService implements UserDetailsService {
       return false;
     }
 
-    return passwordEncoder.matches(password, user.getPassword());
+    return passwordHashingExecutor.matches("sign-in", password, user.getPassword());
+  }
+
+  public PasswordHashingStatsDto getPasswordHashingStats() {
+    List<PasswordHashingStatsDto.OperationStatsDto> operations = passwordHashingExecutor.getStats().values().stream()
+        .map(stats -> new PasswordHashingStatsDto.OperationStatsDto(
+            stats.operation(),
+            stats.submitted(),
+            stats.rejected(),
+            stats.completed(),
+            averageMillis(stats.queueNanos(), stats.completed()),
+            averageMillis(stats.hashNanos(), stats.completed())))
+        .toList();
+
+    return new PasswordHashingStatsDto(
+        passwordHashingExecutor.getActiveCount(),
+        passwordHashingExecutor.getQueuedCount(),
+        passwordHashingExecutor.getQueueCapacity(),
+        operations);
   }
 
   public AppUser getUser(String username) throws UsernameNotFoundException {
-    return appUserRepository
-        .getAppUserByUsername(username)
+    return userQueries
+        .record(() -> appUserRepository.getAppUserByUsername(username))
         .orElseThrow(() -> new UsernameNotFoundException("No user with username '%s'".formatted(username)));
   }
 
-  @Transactional
+  /**
+   * Resolves the id of users whose tokens predate the id claim. Usernames are never reassigned,
+   * so cached ids do not expire.
+   */
+  public long getUserId(String username) throws UsernameNotFoundException {
+    Long userId = userIds.get(username);
+    if (userId != null) {
+      return userId;
+    }
+
+    userId = userIdQueries
+        .record(() -> appUserRepository.getAppUserIdByUsername(username))
+        .orElseThrow(() -> new UsernameNotFoundException("No user with username '%s'".formatted(username)));
+    userIds.put(username, userId);
+    return userId;
+  }
+
+  /**
+   * Increments the token version in a single statement, so concurrent increments are never lost.
+   */
   public long incrementUserTokenVersion(String username) throws UsernameNotFoundException {
-    AppUser user = getUser(username);
-    Long tokenVersion = user.getTokenVersion();
-    if (tokenVersion == null) {
-      tokenVersion = 0L;
+    long version;
+    try {
+      Long updated = tokenVersionIncrements.record(() ->
+          jdbcTemplate.queryForObject(INCREMENT_TOKEN_VERSION_SQL, Long.class, username));
+      version = Objects.requireNonNull(updated);
+    } catch (EmptyResultDataAccessException ex) {
+      throw new UsernameNotFoundException("No user with username '%s'".formatted(username), ex);
+    }
+    cacheTokenVersion(username, version);
+    return version;
+  }
+
+  /**
+   * Increments the token version only if it still equals {@code expectedVersion}, so that a refresh token
+   * is rotated at most once even when it is presented concurrently or on several nodes.
+   *
+   * @return the new version, or empty if the version has already moved on
+   */
+  public OptionalLong rotateUserTokenVersion(String username, long expectedVersion) {
+    List<Long> updated = tokenVersionIncrements.record(() ->
+        jdbcTemplate.queryForList(ROTATE_TOKEN_VERSION_SQL, Long.class, username, expectedVersion));
+    if (updated == null || updated.isEmpty()) {
+      return OptionalLong.empty();
     }
-    user.setTokenVersion(tokenVersion + 1);
-    appUserRepository.save(user);
-    return user.getTokenVersion();
+    long version = updated.getFirst();
+    cacheTokenVersion(username, version);
+    return OptionalLong.of(version);
+  }
+
+  /**
+   * Versions only grow, so a fresh cached entry newer than the version rejects it without a query.
+   * The cache never accepts a version, since it may miss a bump made on another node; the conditional
+   * rotation in {@link #rotateUserTokenVersion} decides.
+   */
+  public boolean isStaleTokenVersion(String username, long version) {
+    TokenVersion cached = tokenVersions.get(username);
+    return cached != null && System.nanoTime() - cached.expiresAtNanos() < 0 && cached.version() > version;
+  }
+
+
+
+  private void cacheTokenVersion(String username, long version) {
+    TokenVersion loaded = new TokenVersion(version, System.nanoTime() + tokenVersionTtlNanos);
+    // concurrent increments may complete out of order, the cache keeps the highest version
+    tokenVersions.merge(username, loaded, (current, candidate) ->
+        current.version() > candidate.version() ? current : candidate);
+  }
+
+  private static double averageMillis(long totalNanos, long count) {
+    return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
   }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package org.reminstant.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reminstant.model.WeeklySchedule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Process-local snapshot of the common weekly unavailability.
+ * <p>
+ * Nodes that change the schedule broadcast an invalidation over Redis; if a broadcast is lost,
+ * the snapshot is still reloaded once it is older than the configured maximum staleness.
+ */
+@Slf4j
+@Component
+public class CommonUnavailabilityCache implements MessageListener {
+
+  private static final String INVALIDATION_CHANNEL = "cache-invalidation:common-unavailable";
+
+  private record Snapshot(WeeklySchedule schedule, long generation, long loadedAtNanos) {
+  }
+
+  private final StringRedisTemplate redisTemplate;
+  private final long maxStalenessNanos;
+  private final String nodeId;
+
+  private final AtomicLong generation;
+  private final Lock loadLock;
+  private volatile Snapshot snapshot;
+
+  public CommonUnavailabilityCache(StringRedisTemplate redisTemplate,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   @Value("${cache.common-unavailable.max-staleness}") Duration maxStaleness) {
+    this.redisTemplate = redisTemplate;
+    this.maxStalenessNanos = maxStaleness.toNanos();
+    this.nodeId = UUID.randomUUID().toString();
+    this.generation = new AtomicLong();
+    this.loadLock = new ReentrantLock();
+
+    listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+  }
+
+  /**
+   * @param loader reads the schedule from the store; called by at most one thread at a time
+   */
+  public WeeklySchedule get(Supplier<WeeklySchedule> loader) {
+    Snapshot current = snapshot;
+    if (isValid(current)) {
+      return current.schedule();
+    }
+
+    loadLock.lock();
+    try {
+      current = snapshot;
+      if (isValid(current)) {
+        return current.schedule();
+      }
+      // an invalidation arriving during the load leaves the snapshot outdated
+      long loadGeneration = generation.get();
+      WeeklySchedule schedule = loader.get();
+      snapshot = new Snapshot(schedule, loadGeneration, System.nanoTime());
+      return schedule;
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  /**
+   * @return the schedule if it can be served without a load
+   */
+  public Optional<WeeklySchedule> getIfPresent() {
+    Snapshot current = snapshot;
+    return isValid(current) ? Optional.of(current.schedule()) : Optional.empty();
+  }
+
+  /**
+   * Replaces the local snapshot with the just written schedule and invalidates the other nodes.
+   */
+  public void update(WeeklySchedule schedule) {
+    long updateGeneration = generation.incrementAndGet();
+    snapshot = new Snapshot(schedule, updateGeneration, System.nanoTime());
+
+    try {
+      redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId);
+    } catch (RuntimeException ex) {
+      log.warn("Failed to broadcast common unavailability invalidation, other nodes catch up within {} ms",
+          Duration.ofNanos(maxStalenessNanos).toMillis(), ex);
+    }
+  }
+
+  public void invalidate() {
+    generation.incrementAndGet();
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String senderId = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (!nodeId.equals(senderId)) {
+      invalidate();
+    }
+  }
+
+
+
+  private boolean isValid(Snapshot current) {
+    return current != null
+        && current.generation() == generation.get()
+        && System.nanoTime() - current.loadedAtNanos() < maxStalenessNanos;
+  }
+}
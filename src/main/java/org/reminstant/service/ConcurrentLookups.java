@@ -0,0 +1,86 @@
+package org.reminstant.service;
+
+import jakarta.annotation.PreDestroy;
+import org.reminstant.exception.LookupDeadlineExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent lookups of a request concurrently, so that the request waits for the slowest
+ * lookup rather than for their sum. Both lookups run on virtual threads under one deadline;
+ * the first failure cancels the other lookup, and so does the deadline. A single lookup
+ * may be run under the same deadline as well.
+ */
+@Component
+public class ConcurrentLookups {
+
+  public record Pair<A, B>(A first, B second) {
+  }
+
+  private final ExecutorService executor;
+  private final long deadlineNanos;
+
+  public ConcurrentLookups(@Value("${concurrent-lookups.deadline}") Duration deadline) {
+    this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("lookup-", 0).factory());
+    this.deadlineNanos = deadline.toNanos();
+  }
+
+  @SuppressWarnings("unchecked")
+  public <A, B> Pair<A, B> both(Supplier<A> first, Supplier<B> second) {
+    long deadlineAt = System.nanoTime() + deadlineNanos;
+    CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+    Future<Object> firstFuture = completion.submit(RoundTrips.propagate(first)::get);
+    Future<Object> secondFuture = completion.submit(RoundTrips.propagate(second)::get);
+
+    try {
+      // lookups are taken in completion order, so a failure is seen without waiting for the other lookup
+      for (int i = 0; i < 2; ++i) {
+        Future<Object> completed = completion.poll(deadlineAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (completed == null) {
+          throw new LookupDeadlineExceededException(Duration.ofNanos(deadlineNanos));
+        }
+        completed.get();
+      }
+      return new Pair<>((A) firstFuture.get(), (B) secondFuture.get());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new LookupDeadlineExceededException(Duration.ofNanos(deadlineNanos));
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(ex.getCause());
+    } finally {
+      firstFuture.cancel(true);
+      secondFuture.cancel(true);
+    }
+  }
+
+  public <T> T one(Supplier<T> lookup) {
+    Future<T> future = executor.submit(RoundTrips.propagate(lookup)::get);
+    try {
+      return future.get(deadlineNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException ex) {
+      throw new LookupDeadlineExceededException(Duration.ofNanos(deadlineNanos));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new LookupDeadlineExceededException(Duration.ofNanos(deadlineNanos));
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(ex.getCause());
+    } finally {
+      future.cancel(true);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
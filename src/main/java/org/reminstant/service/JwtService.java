@@ -1,106 +1,186 @@
 package org.reminstant.service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.reminstant.model.AppUser;
+import org.reminstant.model.TokenClaims;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
 
+  private static final int CLAIMS_EVICTION_SAMPLE_SIZE = 8;
+
   private final AppUserService appUserService;
-  private final StringRedisTemplate redisTemplate;
+  private final TokenBlacklist tokenBlacklist;
 
   private final SecretKey jwtSigningKey;
   private final JwtParser jwtParser;
 
+  private final Map<String, TokenClaims> verifiedClaims;
+  private final int verifiedClaimsMaxSize;
+
   public JwtService(AppUserService appUserService,
-                    StringRedisTemplate redisTemplate,
-                    @Value("${token.signing.key}") String jwtSigningKey) {
+                    TokenBlacklist tokenBlacklist,
+                    @Value("${token.signing.key}") String jwtSigningKey,
+                    @Value("${token.claims-cache.max-size}") int verifiedClaimsMaxSize) {
     this.appUserService = appUserService;
-    this.redisTemplate = redisTemplate;
+    this.tokenBlacklist = tokenBlacklist;
 
     byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
     this.jwtSigningKey = Keys.hmacShaKeyFor(keyBytes);
     this.jwtParser = Jwts.parser().verifyWith(this.jwtSigningKey).build();
+
+    this.verifiedClaims = new ConcurrentHashMap<>();
+    this.verifiedClaimsMaxSize = verifiedClaimsMaxSize;
   }
 
   public String generateAccessToken(AppUser user, Duration ttl) {
-    Map<String, Object> claims = Map.of("Role", user.getRole());
+    Map<String, Object> claims = Map.of("Role", user.getRole(), "UserId", user.getId());
     return generateToken(claims, user.getUsername(), ttl);
   }
 
-  public String generateAccessToken(String username, String role, Duration ttl) {
-    Map<String, Object> claims = Map.of("Role", role);
+  public String generateAccessToken(String username, String role, long userId, Duration ttl) {
+    Map<String, Object> claims = Map.of("Role", role, "UserId", userId);
     return generateToken(claims, username, ttl);
   }
 
   public String generateRefreshToken(AppUser user, Duration ttl) {
     long tokenVersion = appUserService.incrementUserTokenVersion(user.getUsername());
-    Map<String, Object> claims = Map.of("Role", user.getRole(), "Version", tokenVersion);
+    Map<String, Object> claims = Map.of("Role", user.getRole(), "UserId", user.getId(), "Version", tokenVersion);
     return generateToken(claims, user.getUsername(), ttl);
   }
 
-  public String generateRefreshToken(String username, String role, Duration ttl) {
-    long tokenVersion = appUserService.incrementUserTokenVersion(username);
-    Map<String, Object> claims = Map.of("Role", role, "Version", tokenVersion);
-    return generateToken(claims, username, ttl);
+  /**
+   * Replaces a verified refresh token with a new one. The version is bumped only if it still matches
+   * the presented token, so each refresh token can be exchanged once.
+   *
+   * @throws JwtException if the token has already been rotated or revoked
+   */
+  public String rotateRefreshToken(TokenClaims presented, long userId, Duration ttl) throws JwtException {
+    if (presented.version() == null) {
+      throw new JwtException("Token has no version");
+    }
+    long tokenVersion = appUserService.rotateUserTokenVersion(presented.username(), presented.version())
+        .orElseThrow(() -> new JwtException("Refresh token has already been used"));
+    Map<String, Object> claims = Map.of("Role", presented.role(), "UserId", userId, "Version", tokenVersion);
+    return generateToken(claims, presented.username(), ttl);
   }
 
-  public boolean isAccessTokenInvalid(String token) {
-    try {
-      jwtParser.parseSignedClaims(token);
-      if (isTokenBlacklisted(token)) {
-        return true;
-      }
-      Long version = extractVersion(token);
-      return version != null;
-    } catch (Exception e) {
-      return true;
+  /**
+   * Verifies the signature and expiration of the token. Verified claims are cached by token digest
+   * until the token expires, so a token seen before is not parsed again. Hits take no lock; once the cache
+   * is full, a sample of entries is evicted, see {@link #evictVerifiedClaims()}.
+   *
+   * @throws JwtException if the token is malformed, forged or expired
+   */
+  public TokenClaims verify(String token) throws JwtException {
+    if (token == null || token.isEmpty()) {
+      throw new JwtException("Token is empty");
     }
-  }
 
-  public boolean isRefreshTokenInvalid(String token) {
-    try {
-      jwtParser.parseSignedClaims(token);
-      if (isTokenBlacklisted(token)) {
-        return true;
+    String digest = digest(token);
+    TokenClaims cached = verifiedClaims.get(digest);
+    if (cached != null) {
+      if (Instant.now().isBefore(cached.expiresAt())) {
+        return cached;
       }
-      Long version = extractVersion(token);
-      if (version != null) {
-        AppUser user = appUserService.getUser(extractUsername(token));
-        return !user.getTokenVersion().equals(version);
-      }
-      return true;
-    } catch (Exception e) {
-      return true;
+      verifiedClaims.remove(digest, cached);
     }
+
+    Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+    if (claims.getExpiration() == null) {
+      throw new JwtException("Token has no expiration");
+    }
+    TokenClaims verified = new TokenClaims(
+        digest,
+        claims.getSubject(),
+        claims.get("Role", String.class),
+        claims.get("UserId", Long.class),
+        claims.get("Version", Long.class),
+        claims.getExpiration().toInstant());
+
+    if (verifiedClaims.put(digest, verified) == null && verifiedClaims.size() > verifiedClaimsMaxSize) {
+      evictVerifiedClaims();
+    }
+    return verified;
   }
 
-  public String extractUsername(String token) {
-    return jwtParser.parseSignedClaims(token).getPayload().getSubject();
+  public boolean isAccessTokenInvalid(TokenClaims claims) {
+    return claims.isRefreshToken() || tokenBlacklist.contains(claims.tokenId());
+  }
+
+  /**
+   * Rejects refresh tokens that are blacklisted or known to be outdated without a query; whether the token
+   * is still current is decided by {@link #rotateRefreshToken}.
+   */
+  public boolean isRefreshTokenInvalid(TokenClaims claims) {
+    if (!claims.isRefreshToken() || claims.version() == null || tokenBlacklist.contains(claims.tokenId())) {
+      return true;
+    }
+    return appUserService.isStaleTokenVersion(claims.username(), claims.version());
   }
 
-  public String extractRole(String token) {
-    return jwtParser.parseSignedClaims(token).getPayload().get("Role", String.class);
+  /**
+   * Tokens issued before the id claim was introduced fall back to a cached lookup by username.
+   */
+  public long getUserId(TokenClaims claims) throws UsernameNotFoundException {
+    return claims.userId() != null ? claims.userId() : appUserService.getUserId(claims.username());
   }
 
   public void blacklistToken(String token, Duration ttl) {
-    redisTemplate.opsForValue().set(token, "", ttl);
+    tokenBlacklist.add(digest(token), ttl);
   }
 
   public boolean isTokenBlacklisted(String token) {
-    return redisTemplate.opsForValue().get(token) != null;
+    return tokenBlacklist.contains(digest(token));
+  }
+
+  /**
+   * Digests spread the entries over the map independently of their age, so the first entries met
+   * by the iterator are a random sample. Expired ones are removed, otherwise the one expiring first.
+   */
+  private void evictVerifiedClaims() {
+    Instant now = Instant.now();
+    while (verifiedClaims.size() > verifiedClaimsMaxSize) {
+      Iterator<TokenClaims> iterator = verifiedClaims.values().iterator();
+      TokenClaims victim = null;
+      boolean expiredRemoved = false;
+      for (int i = 0; i < CLAIMS_EVICTION_SAMPLE_SIZE && iterator.hasNext(); ++i) {
+        TokenClaims candidate = iterator.next();
+        if (!now.isBefore(candidate.expiresAt())) {
+          iterator.remove();
+          expiredRemoved = true;
+        } else if (victim == null || candidate.expiresAt().isBefore(victim.expiresAt())) {
+          victim = candidate;
+        }
+      }
+      if (!expiredRemoved) {
+        if (victim == null) {
+          return;
+        }
+        verifiedClaims.remove(victim.tokenId(), victim);
+      }
+    }
   }
 
   private String generateToken(Map<String, Object> extraClaims, String username, Duration ttl) {
@@ -114,11 +194,13 @@ public class JwtService {
         .compact();
   }
 
-  public Long extractVersion(String token) {
+  static String digest(String token) {
     try {
-      return jwtParser.parseSignedClaims(token).getPayload().get("Version", Long.class);
-    } catch (Exception ex) {
-      return null;
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256 is not supported", ex);
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package org.reminstant.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.reminstant.exception.PasswordHashingOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated pool of at most one thread per core, so that
+ * bursts of credential requests cannot occupy every request thread with CPU-bound work.
+ * <p>
+ * Requests wait in a bounded queue; when it is full they are rejected at once
+ * with {@link PasswordHashingOverloadedException} instead of piling up.
+ * The pool keeps platform threads in the virtual-thread mode as well, since hashing is CPU-bound.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+  public record OperationStats(String operation, long submitted, long rejected, long completed,
+                               long queueNanos, long hashNanos) {
+  }
+
+  private static final class OperationCounters {
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+  }
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+  private final Map<String, OperationCounters> counters;
+  private final MeterRegistry meterRegistry;
+
+  public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${security.password.hashing.threads}") int threadCount,
+                                 @Value("${security.password.hashing.queue-capacity}") int queueCapacity) {
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    // non-positive thread count means one thread per core
+    int threads = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+
+    this.passwordEncoder = passwordEncoder;
+    this.executor = new ThreadPoolExecutor(
+        threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    this.queueCapacity = queueCapacity;
+    this.counters = new ConcurrentHashMap<>();
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    Gauge.builder("password.hashing.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+    Gauge.builder("password.hashing.queue.capacity", () -> queueCapacity).register(meterRegistry);
+  }
+
+  public String encode(String operation, String rawPassword) {
+    return execute(operation, () -> passwordEncoder.encode(rawPassword));
+  }
+
+  public boolean matches(String operation, String rawPassword, String encodedPassword) {
+    return execute(operation, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public int getQueuedCount() {
+    return executor.getQueue().size();
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public Map<String, OperationStats> getStats() {
+    Map<String, OperationStats> stats = new TreeMap<>();
+    counters.forEach((operation, c) -> stats.put(operation, new OperationStats(operation,
+        c.submitted.sum(), c.rejected.sum(), c.completed.sum(), c.queueNanos.sum(), c.hashNanos.sum())));
+    return stats;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+
+
+  private OperationCounters createCounters(String operation) {
+    OperationCounters operationCounters = new OperationCounters();
+    FunctionCounter.builder("password.hashing.rejected", operationCounters, c -> c.rejected.sum())
+        .tag("operation", operation)
+        .register(meterRegistry);
+    FunctionTimer.builder("password.hashing.queue.wait", operationCounters,
+            c -> c.completed.sum(), c -> c.queueNanos.sum(), TimeUnit.NANOSECONDS)
+        .tag("operation", operation)
+        .register(meterRegistry);
+    FunctionTimer.builder("password.hashing.duration", operationCounters,
+            c -> c.completed.sum(), c -> c.hashNanos.sum(), TimeUnit.NANOSECONDS)
+        .tag("operation", operation)
+        .register(meterRegistry);
+    return operationCounters;
+  }
+
+  private <T> T execute(String operation, Supplier<T> task) {
+    OperationCounters operationCounters = counters.computeIfAbsent(operation, this::createCounters);
+    long submittedAt = System.nanoTime();
+
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        long startedAt = System.nanoTime();
+        operationCounters.queueNanos.add(startedAt - submittedAt);
+        try {
+          return task.get();
+        } finally {
+          operationCounters.hashNanos.add(System.nanoTime() - startedAt);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      operationCounters.rejected.increment();
+      log.debug("Password hashing queue is full, '{}' rejected", operation);
+      throw new PasswordHashingOverloadedException(operation);
+    }
+    operationCounters.submitted.increment();
+
+    try {
+      T result = future.get();
+      operationCounters.completed.increment();
+      return result;
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingOverloadedException(operation);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package org.reminstant.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes in-process reservation writes per (room, day) with a fixed set of fair lock stripes.
+ * Writes for different keys mostly land on different stripes and proceed in parallel,
+ * while writes for the same key queue up in arrival order.
+ */
+@Component
+public class ReservationLockManager {
+
+  public record Key(String roomId, long epochDay) {
+  }
+
+  private final ReentrantLock[] stripes;
+  private final int stripeMask;
+
+  private final LongAdder acquisitions;
+  private final LongAdder contendedAcquisitions;
+  private final LongAdder fastRejections;
+  private final Map<String, LongAdder> roomContention;
+
+  public ReservationLockManager(@Value("${reservation.lock.stripes}") int stripeCount) {
+    if (stripeCount <= 0) {
+      throw new IllegalArgumentException("Stripe count must be positive");
+    }
+    int size = Integer.highestOneBit(stripeCount - 1) << 1;
+    size = Math.max(size, 1);
+
+    this.stripes = new ReentrantLock[size];
+    for (int i = 0; i < size; ++i) {
+      stripes[i] = new ReentrantLock(true);
+    }
+    this.stripeMask = size - 1;
+    this.acquisitions = new LongAdder();
+    this.contendedAcquisitions = new LongAdder();
+    this.fastRejections = new LongAdder();
+    this.roomContention = new ConcurrentHashMap<>();
+  }
+
+  public <T> T withLock(String roomId, long epochDay, Supplier<T> action) {
+    ReentrantLock lock = acquire(stripeIndex(roomId, epochDay), roomId);
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Holds the locks of all keys at once. Stripes are acquired in ascending order,
+   * so concurrent multi-key holders cannot deadlock each other or single-key holders.
+   */
+  public <T> T withLocks(Collection<Key> keys, Supplier<T> action) {
+    SortedMap<Integer, String> stripeRooms = new TreeMap<>();
+    for (Key key : keys) {
+      stripeRooms.putIfAbsent(stripeIndex(key.roomId(), key.epochDay()), key.roomId());
+    }
+
+    Deque<ReentrantLock> heldLocks = new ArrayDeque<>(stripeRooms.size());
+    try {
+      for (Map.Entry<Integer, String> entry : stripeRooms.entrySet()) {
+        heldLocks.push(acquire(entry.getKey(), entry.getValue()));
+      }
+      return action.get();
+    } finally {
+      while (!heldLocks.isEmpty()) {
+        heldLocks.pop().unlock();
+      }
+    }
+  }
+
+  public void withLock(String roomId, long epochDay, Runnable action) {
+    withLock(roomId, epochDay, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  public void withLocks(Collection<Key> keys, Runnable action) {
+    withLocks(keys, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  public void recordFastRejection() {
+    fastRejections.increment();
+  }
+
+  public void forgetRoom(String roomId) {
+    roomContention.remove(roomId);
+  }
+
+  public long getAcquisitionCount() {
+    return acquisitions.sum();
+  }
+
+  public long getContendedAcquisitionCount() {
+    return contendedAcquisitions.sum();
+  }
+
+  public long getFastRejectionCount() {
+    return fastRejections.sum();
+  }
+
+  /**
+   * @return up to {@code limit} room ids with the most contended acquisitions, most contended first
+   */
+  public Map<String, Long> getHottestRooms(int limit) {
+    Map<String, Long> hottest = new LinkedHashMap<>();
+    roomContention.entrySet().stream()
+        .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+        .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+        .limit(limit)
+        .forEachOrdered(entry -> hottest.put(entry.getKey(), entry.getValue()));
+    return hottest;
+  }
+
+
+
+  private ReentrantLock acquire(int stripeIndex, String roomId) {
+    ReentrantLock lock = stripes[stripeIndex];
+    if (!lock.tryLock()) {
+      contendedAcquisitions.increment();
+      roomContention.computeIfAbsent(roomId, id -> new LongAdder()).increment();
+      lock.lock();
+    }
+    acquisitions.increment();
+    return lock;
+  }
+
+  private int stripeIndex(String roomId, long epochDay) {
+    int hash = 31 * roomId.hashCode() + Long.hashCode(epochDay);
+    return (hash ^ (hash >>> 16)) & stripeMask;
+  }
+}
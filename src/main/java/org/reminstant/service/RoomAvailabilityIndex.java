@@ -0,0 +1,243 @@
+package org.reminstant.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * In-memory index of reserved slots per room and day over the booking horizon.
+ * <p>
+ * Every room owns a ring buffer of {@link #HORIZON_DAYS} slot masks addressed by UTC epoch day,
+ * each stored as the two words described in {@link SlotMasks}.
+ * The buffer rolls over lazily: the first access after midnight clears the entries of the days
+ * that left the horizon, and those entries are reused for the days that entered it. Reads and updates
+ * hold the read side of the rollover lock, so they never observe an entry that is being reused.
+ * <p>
+ * Each node keeps its own index; {@link RoomAvailabilitySync} applies the changes made on other nodes.
+ */
+@Component
+public class RoomAvailabilityIndex {
+
+  public static final int HORIZON_DAYS = 31;
+
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final Map<String, AtomicLongArray> roomMasks;
+  private final ReadWriteLock rolloverLock;
+  private volatile long firstEpochDay;
+  private volatile Set<ReservationLockManager.Key> changedKeys;
+
+  public RoomAvailabilityIndex() {
+    this.roomMasks = new ConcurrentHashMap<>();
+    this.rolloverLock = new ReentrantReadWriteLock();
+    this.firstEpochDay = currentEpochDay();
+  }
+
+  public long getFirstEpochDay() {
+    rollOver();
+    return firstEpochDay;
+  }
+
+  public boolean isInHorizon(long epochDay) {
+    rollOver();
+    long first = firstEpochDay;
+    return epochDay >= first && epochDay < first + HORIZON_DAYS;
+  }
+
+  /**
+   * @return hours with at least one reserved slot
+   */
+  public int getReservedMask(String roomId, long epochDay) {
+    rollOver();
+    rolloverLock.readLock().lock();
+    try {
+      AtomicLongArray masks = roomMasks.get(roomId);
+      if (masks == null || !isInCurrentHorizon(epochDay)) {
+        return 0;
+      }
+      int index = lowIndex(epochDay);
+      return SlotMasks.toTouchedHours(masks.get(index), masks.get(index + 1));
+    } finally {
+      rolloverLock.readLock().unlock();
+    }
+  }
+
+  public boolean isReserved(String roomId, long epochDay, long slotsLow, long slotsHigh) {
+    rollOver();
+    rolloverLock.readLock().lock();
+    try {
+      AtomicLongArray masks = roomMasks.get(roomId);
+      if (masks == null || !isInCurrentHorizon(epochDay)) {
+        return false;
+      }
+      int index = lowIndex(epochDay);
+      return SlotMasks.intersects(masks.get(index), masks.get(index + 1), slotsLow, slotsHigh);
+    } finally {
+      rolloverLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Fills {@code hourMasks} with the reserved hours of consecutive days starting from {@code fromEpochDay};
+   * days outside the horizon are reported as free.
+   */
+  public void copyReservedMasks(String roomId, long fromEpochDay, int[] hourMasks) {
+    rollOver();
+    rolloverLock.readLock().lock();
+    try {
+      AtomicLongArray masks = roomMasks.get(roomId);
+      for (int i = 0; i < hourMasks.length; ++i) {
+        long epochDay = fromEpochDay + i;
+        if (masks == null || !isInCurrentHorizon(epochDay)) {
+          hourMasks[i] = 0;
+          continue;
+        }
+        int index = lowIndex(epochDay);
+        hourMasks[i] = SlotMasks.toTouchedHours(masks.get(index), masks.get(index + 1));
+      }
+    } finally {
+      rolloverLock.readLock().unlock();
+    }
+  }
+
+  public void reserve(String roomId, long epochDay, long slotsLow, long slotsHigh) {
+    update(roomId, epochDay, slotsLow, slotsHigh, (a, b) -> a | b);
+  }
+
+  public void release(String roomId, long epochDay, long slotsLow, long slotsHigh) {
+    update(roomId, epochDay, slotsLow, slotsHigh, (a, b) -> a & ~b);
+  }
+
+  public void set(String roomId, long epochDay, long slotsLow, long slotsHigh) {
+    update(roomId, epochDay, slotsLow, slotsHigh, (a, b) -> b);
+  }
+
+  /**
+   * Starts recording the room days changed from now on, so that a snapshot read afterwards
+   * can be corrected for the changes it may have missed.
+   */
+  public void trackChanges() {
+    changedKeys = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Stops recording changes.
+   *
+   * @return room days changed since {@link #trackChanges()}
+   */
+  public Set<ReservationLockManager.Key> untrackChanges() {
+    Set<ReservationLockManager.Key> changed = changedKeys;
+    changedKeys = null;
+    return changed != null ? changed : Set.of();
+  }
+
+  /**
+   * Replaces the whole index with {@code roomSlots}, the slot masks of consecutive days starting
+   * from {@code firstEpochDay}, laid out as pairs of words.
+   *
+   * @return {@code false} if the horizon has rolled over since {@code firstEpochDay} and nothing was replaced
+   */
+  public boolean replaceAll(long firstEpochDay, Map<String, long[]> roomSlots) {
+    rollOver();
+    rolloverLock.writeLock().lock();
+    try {
+      if (firstEpochDay != this.firstEpochDay) {
+        return false;
+      }
+      roomMasks.keySet().retainAll(roomSlots.keySet());
+      for (Map.Entry<String, long[]> entry : roomSlots.entrySet()) {
+        long[] slots = entry.getValue();
+        AtomicLongArray masks = new AtomicLongArray(2 * HORIZON_DAYS);
+        for (int day = 0; day < HORIZON_DAYS; ++day) {
+          int index = lowIndex(firstEpochDay + day);
+          masks.set(index, slots[2 * day]);
+          masks.set(index + 1, slots[2 * day + 1]);
+        }
+        roomMasks.put(entry.getKey(), masks);
+      }
+      return true;
+    } finally {
+      rolloverLock.writeLock().unlock();
+    }
+  }
+
+  public void removeRoom(String roomId) {
+    roomMasks.remove(roomId);
+  }
+
+  public void clear() {
+    roomMasks.clear();
+  }
+
+
+
+  private void update(String roomId, long epochDay, long slotsLow, long slotsHigh, LongBinaryOperator operator) {
+    rollOver();
+    rolloverLock.readLock().lock();
+    try {
+      long first = firstEpochDay;
+      if (epochDay < first || epochDay >= first + HORIZON_DAYS) {
+        return;
+      }
+      AtomicLongArray masks = roomMasks.computeIfAbsent(roomId, id -> new AtomicLongArray(2 * HORIZON_DAYS));
+      int index = lowIndex(epochDay);
+      masks.accumulateAndGet(index, slotsLow, operator);
+      masks.accumulateAndGet(index + 1, slotsHigh, operator);
+
+      Set<ReservationLockManager.Key> changed = changedKeys;
+      if (changed != null) {
+        changed.add(new ReservationLockManager.Key(roomId, epochDay));
+      }
+    } finally {
+      rolloverLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Must be called under the rollover lock.
+   */
+  private boolean isInCurrentHorizon(long epochDay) {
+    long first = firstEpochDay;
+    return epochDay >= first && epochDay < first + HORIZON_DAYS;
+  }
+
+  private void rollOver() {
+    long today = currentEpochDay();
+    if (today <= firstEpochDay) {
+      return;
+    }
+
+    rolloverLock.writeLock().lock();
+    try {
+      long first = firstEpochDay;
+      if (today <= first) {
+        return;
+      }
+      long expiredDays = Math.min(today - first, HORIZON_DAYS);
+      for (AtomicLongArray masks : roomMasks.values()) {
+        for (long day = first; day < first + expiredDays; ++day) {
+          int index = lowIndex(day);
+          masks.set(index, 0);
+          masks.set(index + 1, 0);
+        }
+      }
+      firstEpochDay = today;
+    } finally {
+      rolloverLock.writeLock().unlock();
+    }
+  }
+
+  private static int lowIndex(long epochDay) {
+    return 2 * (int) Math.floorMod(epochDay, HORIZON_DAYS);
+  }
+
+  private static long currentEpochDay() {
+    return Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_DAY);
+  }
+}
@@ -0,0 +1,182 @@
+package org.reminstant.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reminstant.model.RoomDayOccupancy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Keeps the availability index of every node in line with the occupancy documents.
+ * <p>
+ * A node that changes the occupancy of room days broadcasts their keys over Redis, and the other nodes
+ * reload those days from Mongo. Lost broadcasts are reconciled by resyncing the whole horizon periodically.
+ * The index never accepts a reservation on its own, so a stale entry can only reject slots released
+ * on another node, or display them as reserved, until the next reload.
+ */
+@Slf4j
+@Component
+public class RoomAvailabilitySync implements MessageListener {
+
+  private static final String CHANGE_CHANNEL = "availability-index:changes";
+
+  private final MongoTemplate mongoTemplate;
+  private final StringRedisTemplate redisTemplate;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final String nodeId;
+
+  public RoomAvailabilitySync(MongoTemplate mongoTemplate,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              RoomAvailabilityIndex availabilityIndex) {
+    this.mongoTemplate = mongoTemplate;
+    this.redisTemplate = redisTemplate;
+    this.availabilityIndex = availabilityIndex;
+    this.nodeId = UUID.randomUUID().toString();
+
+    listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+  }
+
+  /**
+   * Broadcasts room days whose occupancy this node has changed, as one message.
+   */
+  public void publish(Collection<ReservationLockManager.Key> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    StringJoiner message = new StringJoiner(" ", nodeId + " ", "");
+    for (ReservationLockManager.Key key : keys) {
+      message.add(key.roomId() + ":" + key.epochDay());
+    }
+    try {
+      redisTemplate.convertAndSend(CHANGE_CHANNEL, message.toString());
+    } catch (RuntimeException ex) {
+      log.warn("Failed to broadcast availability changes, other nodes catch up on the next resync", ex);
+    }
+  }
+
+  /**
+   * Replaces the index entry of the room day with its occupancy document.
+   */
+  public void reload(String roomId, long epochDay) {
+    reload(List.of(new ReservationLockManager.Key(roomId, epochDay)));
+  }
+
+  /**
+   * Replaces the index entries of the room days with their occupancy documents, read in one query.
+   */
+  public void reload(Collection<ReservationLockManager.Key> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    Set<String> roomIds = new HashSet<>();
+    Set<OffsetDateTime> dates = new HashSet<>();
+    for (ReservationLockManager.Key key : keys) {
+      roomIds.add(key.roomId());
+      dates.add(convertEpochDayToDate(key.epochDay()));
+    }
+    Query query = new Query(Criteria.where("roomId").in(roomIds).and("date").in(dates));
+
+    Map<ReservationLockManager.Key, RoomDayOccupancy> occupancies = new HashMap<>();
+    for (RoomDayOccupancy occupancy : mongoTemplate.find(query, RoomDayOccupancy.class)) {
+      if (occupancy.getRoomId() != null && occupancy.getDate() != null) {
+        long epochDay = occupancy.getDate().toLocalDate().toEpochDay();
+        occupancies.put(new ReservationLockManager.Key(occupancy.getRoomId(), epochDay), occupancy);
+      }
+    }
+    for (ReservationLockManager.Key key : keys) {
+      RoomDayOccupancy occupancy = occupancies.get(key);
+      long slotsLow = occupancy == null || occupancy.getSlotsLow() == null ? 0 : occupancy.getSlotsLow();
+      long slotsHigh = occupancy == null || occupancy.getSlotsHigh() == null ? 0 : occupancy.getSlotsHigh();
+      availabilityIndex.set(key.roomId(), key.epochDay(), slotsLow, slotsHigh);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(" ");
+    if (nodeId.equals(parts[0])) {
+      return;
+    }
+    try {
+      List<ReservationLockManager.Key> keys = new ArrayList<>(parts.length - 1);
+      for (int i = 1; i < parts.length; ++i) {
+        int separator = parts[i].lastIndexOf(':');
+        keys.add(new ReservationLockManager.Key(
+            parts[i].substring(0, separator), Long.parseLong(parts[i].substring(separator + 1))));
+      }
+      reload(keys);
+    } catch (RuntimeException ex) {
+      log.warn("Failed to apply availability changes, the next resync picks them up", ex);
+    }
+  }
+
+  /**
+   * Rebuilds the whole horizon from the occupancy documents. Room days changed in the index while
+   * the documents are read, by this node or by a broadcast, may be overwritten with their previous state,
+   * so they are recorded and reloaded once the index has been replaced.
+   */
+  @Scheduled(
+      fixedDelayString = "${availability-index.resync-interval}",
+      initialDelayString = "${availability-index.resync-interval}")
+  public void resync() {
+    availabilityIndex.trackChanges();
+    try {
+      long firstEpochDay = availabilityIndex.getFirstEpochDay();
+      Query query = new Query(Criteria.where("date")
+          .gte(convertEpochDayToDate(firstEpochDay))
+          .lt(convertEpochDayToDate(firstEpochDay + RoomAvailabilityIndex.HORIZON_DAYS)));
+
+      Map<String, long[]> roomSlots = new HashMap<>();
+      for (RoomDayOccupancy occupancy : mongoTemplate.find(query, RoomDayOccupancy.class)) {
+        if (occupancy.getRoomId() == null || occupancy.getDate() == null) {
+          continue;
+        }
+        int dayOffset = (int) (occupancy.getDate().toLocalDate().toEpochDay() - firstEpochDay);
+        long[] slots = roomSlots.computeIfAbsent(occupancy.getRoomId(),
+            id -> new long[2 * RoomAvailabilityIndex.HORIZON_DAYS]);
+        slots[2 * dayOffset] = occupancy.getSlotsLow() != null ? occupancy.getSlotsLow() : 0;
+        slots[2 * dayOffset + 1] = occupancy.getSlotsHigh() != null ? occupancy.getSlotsHigh() : 0;
+      }
+
+      boolean replaced = availabilityIndex.replaceAll(firstEpochDay, roomSlots);
+      Set<ReservationLockManager.Key> changedKeys = availabilityIndex.untrackChanges();
+      if (replaced) {
+        reload(changedKeys);
+        log.debug("Availability index resynced with {} rooms, {} room days reloaded",
+            roomSlots.size(), changedKeys.size());
+      }
+    } catch (RuntimeException ex) {
+      availabilityIndex.untrackChanges();
+      log.warn("Failed to resync availability index", ex);
+    }
+  }
+
+
+
+  private static OffsetDateTime convertEpochDayToDate(long epochDay) {
+    return LocalDate.ofEpochDay(epochDay).atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+}
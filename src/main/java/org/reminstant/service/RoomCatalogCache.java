@@ -0,0 +1,297 @@
+package org.reminstant.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reminstant.model.Room;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Process-local room catalog indexed by title and by id, plus a snapshot of the whole catalog.
+ * <p>
+ * Both indexes keep at most {@code maxSize} least recently used entries. Unknown titles are cached
+ * as absent for a short time. Any catalog change drops the whole cache on every node through
+ * a Redis broadcast; entries older than the maximum staleness are reloaded regardless.
+ */
+@Slf4j
+@Component
+public class RoomCatalogCache implements MessageListener {
+
+  private static final String INVALIDATION_CHANNEL = "cache-invalidation:rooms";
+
+  /**
+   * {@code room == null} marks an unknown title
+   */
+  private record Entry(Room room, long generation, long expiresAtNanos) {
+  }
+
+  private record Snapshot(List<Room> rooms, long generation, long expiresAtNanos) {
+  }
+
+  private final StringRedisTemplate redisTemplate;
+  private final int maxSize;
+  private final long maxStalenessNanos;
+  private final long negativeTtlNanos;
+  private final String nodeId;
+
+  private final Lock lock;
+  private final Map<String, Entry> byTitle;
+  private final Map<String, Entry> byId;
+  private final AtomicLong generation;
+  private volatile Snapshot allRooms;
+
+  private final LongAdder hits;
+  private final LongAdder negativeHits;
+  private final LongAdder misses;
+  private final LongAdder evictions;
+
+  public RoomCatalogCache(StringRedisTemplate redisTemplate,
+                          RedisMessageListenerContainer listenerContainer,
+                          @Value("${cache.rooms.max-size}") int maxSize,
+                          @Value("${cache.rooms.max-staleness}") Duration maxStaleness,
+                          @Value("${cache.rooms.negative-ttl}") Duration negativeTtl) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Max size must be positive");
+    }
+    this.redisTemplate = redisTemplate;
+    this.maxSize = maxSize;
+    this.maxStalenessNanos = maxStaleness.toNanos();
+    this.negativeTtlNanos = negativeTtl.toNanos();
+    this.nodeId = UUID.randomUUID().toString();
+
+    this.lock = new ReentrantLock();
+    this.byTitle = createIndex();
+    this.byId = createIndex();
+    this.generation = new AtomicLong();
+
+    this.hits = new LongAdder();
+    this.negativeHits = new LongAdder();
+    this.misses = new LongAdder();
+    this.evictions = new LongAdder();
+
+    listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+  }
+
+  /**
+   * @param loader returns the room or {@code null} if there is none
+   */
+  public Optional<Room> findByTitle(String roomTitle, Function<String, Room> loader) {
+    Entry entry = lookup(byTitle, roomTitle);
+    if (entry != null) {
+      return Optional.ofNullable(entry.room());
+    }
+
+    long loadGeneration = generation.get();
+    Room room = loader.apply(roomTitle);
+    if (room != null) {
+      put(room, loadGeneration);
+    } else {
+      putAbsentTitle(roomTitle, loadGeneration);
+    }
+    return Optional.ofNullable(room);
+  }
+
+  /**
+   * @param loader returns the room or {@code null} if there is none
+   */
+  public Optional<Room> findById(String roomId, Function<String, Room> loader) {
+    Entry entry = lookup(byId, roomId);
+    if (entry != null) {
+      return Optional.ofNullable(entry.room());
+    }
+
+    long loadGeneration = generation.get();
+    Room room = loader.apply(roomId);
+    if (room != null) {
+      put(room, loadGeneration);
+    }
+    return Optional.ofNullable(room);
+  }
+
+  /**
+   * Resolves all titles with at most one {@code loader} call for the titles that are not cached.
+   *
+   * @return known rooms by title
+   */
+  public Map<String, Room> findByTitles(Collection<String> roomTitles,
+                                        Function<Collection<String>, List<Room>> loader) {
+    Map<String, Room> rooms = new HashMap<>();
+    Set<String> missingTitles = new HashSet<>();
+    for (String roomTitle : roomTitles) {
+      Entry entry = lookup(byTitle, roomTitle);
+      if (entry == null) {
+        missingTitles.add(roomTitle);
+      } else if (entry.room() != null) {
+        rooms.put(roomTitle, entry.room());
+      }
+    }
+    if (missingTitles.isEmpty()) {
+      return rooms;
+    }
+
+    long loadGeneration = generation.get();
+    for (Room room : loader.apply(missingTitles)) {
+      put(room, loadGeneration);
+      rooms.put(room.getRoomTitle(), room);
+      missingTitles.remove(room.getRoomTitle());
+    }
+    for (String roomTitle : missingTitles) {
+      putAbsentTitle(roomTitle, loadGeneration);
+    }
+    return rooms;
+  }
+
+  public List<Room> findAll(Supplier<List<Room>> loader) {
+    Snapshot current = allRooms;
+    if (isValid(current)) {
+      hits.increment();
+      return current.rooms();
+    }
+
+    misses.increment();
+    long loadGeneration = generation.get();
+    List<Room> rooms = List.copyOf(loader.get());
+    allRooms = new Snapshot(rooms, loadGeneration, System.nanoTime() + maxStalenessNanos);
+    return rooms;
+  }
+
+  /**
+   * Drops the cache on this node and broadcasts the invalidation to the other nodes.
+   */
+  public void invalidate() {
+    invalidateLocally();
+    try {
+      redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId);
+    } catch (RuntimeException ex) {
+      log.warn("Failed to broadcast room catalog invalidation, other nodes catch up within {} ms",
+          Duration.ofNanos(maxStalenessNanos).toMillis(), ex);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String senderId = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (!nodeId.equals(senderId)) {
+      invalidateLocally();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getNegativeHitCount() {
+    return negativeHits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  public int getSize() {
+    lock.lock();
+    try {
+      return byTitle.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+
+
+  private Entry lookup(Map<String, Entry> index, String key) {
+    Entry entry;
+    lock.lock();
+    try {
+      entry = index.get(key);
+    } finally {
+      lock.unlock();
+    }
+
+    if (entry == null || !isValid(entry)) {
+      misses.increment();
+      return null;
+    }
+    if (entry.room() == null) {
+      negativeHits.increment();
+    } else {
+      hits.increment();
+    }
+    return entry;
+  }
+
+  private void put(Room room, long loadGeneration) {
+    Entry entry = new Entry(room, loadGeneration, System.nanoTime() + maxStalenessNanos);
+    lock.lock();
+    try {
+      byTitle.put(room.getRoomTitle(), entry);
+      byId.put(room.getId(), entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void putAbsentTitle(String roomTitle, long loadGeneration) {
+    Entry entry = new Entry(null, loadGeneration, System.nanoTime() + negativeTtlNanos);
+    lock.lock();
+    try {
+      byTitle.put(roomTitle, entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void invalidateLocally() {
+    // entries loaded before the increment can no longer be read, even if stored after the clear
+    generation.incrementAndGet();
+    allRooms = null;
+    lock.lock();
+    try {
+      byTitle.clear();
+      byId.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isValid(Entry entry) {
+    return entry.generation() == generation.get() && System.nanoTime() - entry.expiresAtNanos() < 0;
+  }
+
+  private boolean isValid(Snapshot snapshot) {
+    return snapshot != null
+        && snapshot.generation() == generation.get()
+        && System.nanoTime() - snapshot.expiresAtNanos() < 0;
+  }
+
+  private Map<String, Entry> createIndex() {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+}
@@ -1,31 +1,53 @@
 package org.reminstant.service;
 
-import com.mongodb.DuplicateKeyException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.reminstant.dto.http.common.CommonUnavailableDaysDto;
 import org.reminstant.dto.http.common.RoomDto;
+import org.reminstant.dto.http.request.ReservationRequestDto;
+import org.reminstant.dto.http.request.ReservationSeriesRequestDto;
+import org.reminstant.dto.http.response.FreeSlotsDto;
+import org.reminstant.dto.http.response.ReservationBatchResultDto;
+import org.reminstant.dto.http.response.ReservationSeriesResultDto;
+import org.reminstant.dto.http.response.ReservationContentionDto;
 import org.reminstant.dto.http.response.ReservationParamsDto;
+import org.reminstant.dto.http.response.RoomCatalogCacheStatsDto;
 import org.reminstant.dto.http.response.RoomDayRangeAvailabilityDto;
+import org.reminstant.dto.http.response.RoomsAvailabilityMatrixDto;
 import org.reminstant.dto.http.response.RoomsDayAvailabilityDto;
-import org.reminstant.dto.mongo.DayHourMasksDto;
-import org.reminstant.dto.mongo.RoomHourMasksDto;
 import org.reminstant.exception.ReservationNotFoundException;
 import org.reminstant.exception.RoomNotFoundException;
 import org.reminstant.exception.UnavailableReservationException;
 import org.reminstant.model.*;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.*;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.DayOfWeek;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -34,60 +56,222 @@ public class RoomService {
   private static final String ROOMS_COLLECTION = "rooms";
   private static final String COMMMON_CONFIG_COLLECTION = "config";
   private static final String RESERVATIONS_COLLECTION = "reservations";
+  private static final String OCCUPANCY_COLLECTION = "occupancy";
+  private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+  private static final int FULL_DAY_MASK = (1 << 24) - 1;
+  private static final String ALREADY_RESERVED = "Already reserved";
+  private static final String UNAVAILABLE_TIME = "Unavailable time";
+  private static final String EXCEEDED_MAX_DELAY = "Exceeded max reservation delay of 30 days";
+  private static final String OUTCOME_METRIC = "reservation.outcomes";
+
+  private record PendingReservation(int index, String roomId, OffsetDateTime date, long epochDay,
+                                    long slotsLow, long slotsHigh) {
+  }
 
   private final MongoTemplate mongoTemplate;
-  private final AppUserService userService;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final RoomAvailabilitySync availabilitySync;
+  private final ReservationLockManager lockManager;
+  private final CommonUnavailabilityCache commonUnavailabilityCache;
+  private final RoomCatalogCache roomCatalogCache;
+  private final ConcurrentLookups concurrentLookups;
+  private final Counter reservedOutcome;
+  private final Map<String, Counter> rejectedOutcomes;
+  private final Counter roomNotFoundOutcome;
+  private final Counter failedOutcome;
 
   private final DateTimeFormatter isoDateFormatter;
 
-  public RoomService(MongoTemplate mongoTemplate, AppUserService userService) {
+  public RoomService(MongoTemplate mongoTemplate,
+                     RoomAvailabilityIndex availabilityIndex, RoomAvailabilitySync availabilitySync,
+                     ReservationLockManager lockManager,
+                     CommonUnavailabilityCache commonUnavailabilityCache, RoomCatalogCache roomCatalogCache,
+                     ConcurrentLookups concurrentLookups, MeterRegistry meterRegistry) {
     this.mongoTemplate = mongoTemplate;
-    this.userService = userService;
+    this.availabilityIndex = availabilityIndex;
+    this.availabilitySync = availabilitySync;
+    this.lockManager = lockManager;
+    this.commonUnavailabilityCache = commonUnavailabilityCache;
+    this.roomCatalogCache = roomCatalogCache;
+    this.concurrentLookups = concurrentLookups;
+    this.reservedOutcome = meterRegistry.counter(OUTCOME_METRIC, "outcome", "reserved");
+    this.rejectedOutcomes = Map.of(
+        ALREADY_RESERVED, meterRegistry.counter(OUTCOME_METRIC, "outcome", "already_reserved"),
+        UNAVAILABLE_TIME, meterRegistry.counter(OUTCOME_METRIC, "outcome", "unavailable_time"),
+        EXCEEDED_MAX_DELAY, meterRegistry.counter(OUTCOME_METRIC, "outcome", "beyond_horizon"));
+    this.roomNotFoundOutcome = meterRegistry.counter(OUTCOME_METRIC, "outcome", "room_not_found");
+    this.failedOutcome = meterRegistry.counter(OUTCOME_METRIC, "outcome", "failed");
     this.isoDateFormatter = DateTimeFormatter.ofPattern("uuuu-MM-dd");
   }
 
+  @PostConstruct
+  public void init() {
+    migrateWeeklySchedules();
+    initAvailabilityIndex();
+  }
 
-  public List<Room> getRooms() {
-    return mongoTemplate.find(new Query(), Room.class, ROOMS_COLLECTION);
+  private void migrateWeeklySchedules() {
+    // unavailability used to be stored as separate nullable day fields
+    String[] legacyFields = Arrays.stream(DayOfWeek.values())
+        .map(dayOfWeek -> dayOfWeek.name().toLowerCase())
+        .toArray(String[]::new);
+
+    Query roomQuery = new Query(Criteria.where("weeklyUnavailability").exists(false));
+    for (Document room : mongoTemplate.find(roomQuery, Document.class, ROOMS_COLLECTION)) {
+      Document legacyMasks = room.get("unavailabilityMasks", Document.class);
+      WeeklySchedule schedule = convertLegacyMasksToSchedule(legacyMasks, legacyFields);
+      Update update = new Update().set("weeklyUnavailability", schedule).unset("unavailabilityMasks");
+      mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(room.get("_id"))), update, ROOMS_COLLECTION);
+    }
+
+    Query configQuery = new Query(Criteria
+        .where("configName").is(CommonUnavailableDays.CONFIG_NAME)
+        .and("weeklyUnavailability").exists(false));
+    for (Document config : mongoTemplate.find(configQuery, Document.class, COMMMON_CONFIG_COLLECTION)) {
+      WeeklySchedule schedule = convertLegacyMasksToSchedule(config, legacyFields);
+      Update update = new Update().set("weeklyUnavailability", schedule);
+      for (String legacyField : legacyFields) {
+        update.unset(legacyField);
+      }
+      mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(config.get("_id"))), update,
+          COMMMON_CONFIG_COLLECTION);
+    }
   }
 
-  public List<String> getRoomTitles() {
-    Query query = new Query();
-    query.fields().include("roomTitle").exclude("_id");
+  /**
+   * Reconciles the occupancy documents from today on with the reservations they guard and fills
+   * the availability index. Documents are only changed if they still hold the slots read here,
+   * so claims made meanwhile by other nodes are kept; bits left by a crash between a claim
+   * and its reservation insert, or by a failed release, are cleared.
+   */
+  private void initAvailabilityIndex() {
+    long firstEpochDay = availabilityIndex.getFirstEpochDay();
+    OffsetDateTime firstDate = convertEpochDayToDate(firstEpochDay);
+
+    // occupancy documents written with hour masks are reset and rebuilt from the reservations below
+    Query legacyQuery = new Query(Criteria.where("mask").exists(true));
+    Update legacyUpdate = new Update().unset("mask").set("slotsLow", 0L).set("slotsHigh", 0L);
+    mongoTemplate.updateMulti(legacyQuery, legacyUpdate, RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+
+    Query occupancyQuery = new Query(Criteria.where("date").gte(firstDate));
+    Map<ReservationLockManager.Key, RoomDayOccupancy> occupancies = new HashMap<>();
+    for (RoomDayOccupancy occupancy : mongoTemplate.find(occupancyQuery, RoomDayOccupancy.class, OCCUPANCY_COLLECTION)) {
+      if (occupancy.getRoomId() != null && occupancy.getDate() != null) {
+        occupancies.put(new ReservationLockManager.Key(
+            occupancy.getRoomId(), convertDateToEpochDay(occupancy.getDate())), occupancy);
+      }
+    }
 
-    List<Room> rooms = mongoTemplate.find(query, Room.class, ROOMS_COLLECTION);
+    Query query = new Query(Criteria.where("date").gte(firstDate));
+    query.fields().include("roomId", "date", "reservationMask", "slotMaskLow", "slotMaskHigh").exclude("_id");
+
+    Map<ReservationLockManager.Key, long[]> reservedSlots = new HashMap<>();
+    try (Stream<Reservation> reservations = mongoTemplate.stream(query, Reservation.class, RESERVATIONS_COLLECTION)) {
+      Iterator<Reservation> iterator = reservations.iterator();
+      while (iterator.hasNext()) {
+        Reservation reservation = iterator.next();
+        if (reservation.getRoomId() == null || reservation.getDate() == null
+            || reservation.getReservationMask() == null) {
+          continue;
+        }
+        var key = new ReservationLockManager.Key(reservation.getRoomId(), convertDateToEpochDay(reservation.getDate()));
+        long[] slots = reservedSlots.computeIfAbsent(key, k -> new long[2]);
+        slots[0] |= getSlotsLow(reservation);
+        slots[1] |= getSlotsHigh(reservation);
+      }
+    }
 
-    return rooms.stream().map(Room::getRoomTitle).toList();
+    BulkOperations occupancyOps = mongoTemplate
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+    int reconciledCount = 0;
+    for (Map.Entry<ReservationLockManager.Key, long[]> entry : reservedSlots.entrySet()) {
+      ReservationLockManager.Key key = entry.getKey();
+      long[] slots = entry.getValue();
+      RoomDayOccupancy occupancy = occupancies.remove(key);
+      if (occupancy == null) {
+        occupancyOps.upsert(buildOccupancyQuery(key.roomId(), convertEpochDayToDate(key.epochDay())),
+            buildBitwiseUpdate("or", slots[0], slots[1]));
+        ++reconciledCount;
+      } else if (!Objects.equals(occupancy.getSlotsLow(), slots[0])
+          || !Objects.equals(occupancy.getSlotsHigh(), slots[1])) {
+        occupancyOps.updateOne(buildUnchangedOccupancyQuery(occupancy),
+            new Update().set("slotsLow", slots[0]).set("slotsHigh", slots[1]));
+        ++reconciledCount;
+      }
+    }
+    // documents left over guard no reservation at all
+    for (RoomDayOccupancy occupancy : occupancies.values()) {
+      occupancyOps.remove(buildUnchangedOccupancyQuery(occupancy));
+      ++reconciledCount;
+    }
+    if (reconciledCount > 0) {
+      occupancyOps.execute();
+    }
+
+    availabilityIndex.clear();
+    int occupancyCount = 0;
+    for (Map.Entry<ReservationLockManager.Key, long[]> entry : reservedSlots.entrySet()) {
+      ReservationLockManager.Key key = entry.getKey();
+      if (availabilityIndex.isInHorizon(key.epochDay())) {
+        availabilityIndex.reserve(key.roomId(), key.epochDay(), entry.getValue()[0], entry.getValue()[1]);
+        ++occupancyCount;
+      }
+    }
+
+    log.info("Availability index populated with {} occupied room days, {} occupancy documents reconciled",
+        occupancyCount, reconciledCount);
+  }
+
+  /**
+   * Matches the occupancy document only while it holds the slots it was read with.
+   */
+  private static Query buildUnchangedOccupancyQuery(RoomDayOccupancy occupancy) {
+    return new Query(Criteria
+        .where("_id").is(occupancy.getId())
+        .and("slotsLow").is(occupancy.getSlotsLow())
+        .and("slotsHigh").is(occupancy.getSlotsHigh()));
+  }
+
+  public List<Room> getRooms() {
+    return roomCatalogCache.findAll(() -> mongoTemplate.find(new Query(), Room.class, ROOMS_COLLECTION));
+  }
+
+  public List<String> getRoomTitles() {
+    return getRooms().stream().map(Room::getRoomTitle).toList();
   }
 
   public Room getRoomById(String roomId) throws RoomNotFoundException {
-    Query query = new Query(Criteria.where("_id").is(roomId));
-    List<Room> rooms = mongoTemplate.find(query, Room.class, ROOMS_COLLECTION);
-    Optional<Room> room = rooms.stream().findFirst();
+    Optional<Room> room = roomCatalogCache.findById(roomId, id -> {
+      Query query = new Query(Criteria.where("_id").is(id));
+      return mongoTemplate.findOne(query, Room.class, ROOMS_COLLECTION);
+    });
 
     return room.orElseThrow(() -> new RoomNotFoundException("id", roomId));
   }
 
   public Room getRoom(String roomTitle) throws RoomNotFoundException {
-    Query query = new Query(Criteria.where("roomTitle").is(roomTitle));
-    List<Room> rooms = mongoTemplate.find(query, Room.class, ROOMS_COLLECTION);
-    Optional<Room> room = rooms.stream().findFirst();
+    Optional<Room> room = roomCatalogCache.findByTitle(roomTitle, title -> {
+      Query query = new Query(Criteria.where("roomTitle").is(title));
+      return mongoTemplate.findOne(query, Room.class, ROOMS_COLLECTION);
+    });
 
     return room.orElseThrow(() -> new RoomNotFoundException("title", roomTitle));
   }
 
   public void addRoom(Room room) throws DuplicateKeyException {
     mongoTemplate.save(room, ROOMS_COLLECTION);
+    roomCatalogCache.invalidate();
   }
 
   public void configureRoom(Room room) throws RoomNotFoundException {
     Query query = new Query(Criteria.where("roomTitle").is(room.getRoomTitle()));
-    UpdateDefinition update = new Update().set("unavailabilityMasks", room.getUnavailabilityMasks());
+    UpdateDefinition update = new Update().set("weeklyUnavailability", room.getWeeklyUnavailability());
 
     UpdateResult result = mongoTemplate.updateFirst(query, update, ROOMS_COLLECTION);
     if (result.getMatchedCount() == 0) {
       throw new RoomNotFoundException("title", room.getRoomTitle());
     }
+    roomCatalogCache.invalidate();
   }
 
   public void deleteRoom(String roomTitle) throws RoomNotFoundException {
@@ -95,9 +279,13 @@ public class RoomService {
 
     Query reservationQuery = new Query(Criteria.where("roomId").is(room.getId()));
     mongoTemplate.remove(reservationQuery, Reservation.class, RESERVATIONS_COLLECTION);
+    mongoTemplate.remove(reservationQuery, RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+    availabilityIndex.removeRoom(room.getId());
+    lockManager.forgetRoom(room.getId());
 
     Query roomQuery = new Query(Criteria.where("roomTitle").is(roomTitle));
     DeleteResult result = mongoTemplate.remove(roomQuery, ROOMS_COLLECTION);
+    roomCatalogCache.invalidate();
     if (result.getDeletedCount() == 0) {
       throw new RoomNotFoundException("title", roomTitle);
     }
@@ -114,6 +302,14 @@ public class RoomService {
 
   public void setCommonUnavailableDays(CommonUnavailableDays unavailable) {
     mongoTemplate.save(unavailable, COMMMON_CONFIG_COLLECTION);
+    commonUnavailabilityCache.update(unavailable.getWeeklyUnavailability());
+  }
+
+  /**
+   * Cached counterpart of {@link #getCommonUnavailableDays()} for the reservation paths.
+   */
+  public WeeklySchedule getCommonUnavailableSchedule() {
+    return commonUnavailabilityCache.get(() -> getCommonUnavailableDays().getWeeklyUnavailability());
   }
 
 
@@ -128,8 +324,9 @@ public class RoomService {
 
     OffsetDateTime startDate = OffsetDateTime.parse(startStringDate + "T00:00:00Z");
     OffsetDateTime endDate = startDate.plus(Duration.ofDays(dayCount));
-    Room room = getRoom(roomTitle);
-    CommonUnavailableDays commonUnavailability = getCommonUnavailableDays();
+    var lookups = withCommonSchedule(() -> getRoom(roomTitle));
+    Room room = lookups.first();
+    WeeklySchedule commonSchedule = lookups.second();
     var roomAvailability = new RoomDayRangeAvailability(room.getId(), roomTitle);
 
     if (startDate.plus(Duration.ofDays(1)).isBefore(now)) {
@@ -144,39 +341,11 @@ public class RoomService {
       return roomAvailability;
     }
 
-    Aggregation agg = Aggregation.newAggregation(
-        Aggregation.match(Criteria
-            .where("roomId").is(room.getId())
-            .and("date").gte(startDate).lt(endDate)),
-        Aggregation.group("date")
-            .push("reservationMask").as("masks"),
-        Aggregation.project()
-            .and("_id").as("date")
-            .and("masks").as("masks"));
-    AggregationResults<DayHourMasksDto> aggResult = mongoTemplate
-        .aggregate(agg, RESERVATIONS_COLLECTION, DayHourMasksDto.class);
-
-    Map<OffsetDateTime, Integer> reservationMasks = HashMap.newHashMap(dayCount);
-    for (DayHourMasksDto dto : aggResult.getMappedResults()) {
-      if (dto.getDate() == null || dto.getMasks() == null) {
-        log.warn("Null date or masks in aggregation result (roomTitle={}, startDate={}, endDate={})",
-            roomTitle, startDate.format(isoDateFormatter), endDate.format(isoDateFormatter));
-        continue;
-      }
-      int reservationMask = dto.getMasks().stream().reduce(0, (a, b) -> a | b);
-      reservationMasks.put(dto.getDate(), reservationMask);
-    }
-
     for (OffsetDateTime date = startDate; date.isBefore(endDate); date = date.plus(Duration.ofDays(1))) {
-      int passedHoursMask = 0;
-      if (date.isBefore(OffsetDateTime.now())) {
-        for (int hour = 0; hour <= OffsetDateTime.now().getHour(); ++hour) {
-          passedHoursMask |= 1 << hour;
-        }
-      }
-      int roomMask = getRoomMask(room, date);
-      int commonMask = getCommonMask(commonUnavailability, date);
-      int reservationMask = reservationMasks.getOrDefault(date, 0);
+      int passedHoursMask = getPassedHoursMask(date);
+      int roomMask = room.getWeeklyUnavailability().getMask(date.getDayOfWeek());
+      int commonMask = commonSchedule.getMask(date.getDayOfWeek());
+      int reservationMask = availabilityIndex.getReservedMask(room.getId(), convertDateToEpochDay(date));
       int availableMask = ~(roomMask | commonMask | reservationMask | passedHoursMask);
       var avail = new RoomDayRangeAvailability.Availability(date, availableMask);
       roomAvailability.getAvailability().add(avail);
@@ -189,48 +358,24 @@ public class RoomService {
     Objects.requireNonNull(stringDate, "stringDate cannot be null");
 
     OffsetDateTime date = OffsetDateTime.parse(stringDate + "T00:00:00Z");
-    List<Room> rooms = getRooms();
-    CommonUnavailableDays commonUnavailability = getCommonUnavailableDays();
-    int passedHoursMask = 0;
+    var lookups = withCommonSchedule(this::getRooms);
+    List<Room> rooms = lookups.first();
+    WeeklySchedule commonSchedule = lookups.second();
+    int passedHoursMask = getPassedHoursMask(date);
     var roomAvailability = new RoomsDayAvailability(date);
 
     if (date.plus(Duration.ofDays(1)).isBefore(OffsetDateTime.now())) {
       return roomAvailability;
     }
-    if (date.isBefore(OffsetDateTime.now())) {
-      for (int hour = 0; hour <= OffsetDateTime.now().getHour(); ++hour) {
-        passedHoursMask |= 1 << hour;
-      }
-    }
     if (date.isAfter(OffsetDateTime.now().plus(Duration.ofDays(30)))) {
       return roomAvailability;
     }
 
-    Aggregation agg = Aggregation.newAggregation(
-        Aggregation.match(Criteria
-            .where("date").is(date)),
-        Aggregation.group("roomId")
-            .push("reservationMask").as("masks"),
-        Aggregation.project()
-            .and("_id").as("roomId")
-            .and("masks").as("masks"));
-    AggregationResults<RoomHourMasksDto> aggResult = mongoTemplate
-        .aggregate(agg, RESERVATIONS_COLLECTION, RoomHourMasksDto.class);
-
-    Map<String, Integer> reservationMasks = HashMap.newHashMap(rooms.size());
-    for (RoomHourMasksDto dto : aggResult.getMappedResults()) {
-      if (dto.getRoomId() == null || dto.getMasks() == null) {
-        log.warn("Null roomId or masks in aggregation result (date={}", date);
-        continue;
-      }
-      int reservationMask = dto.getMasks().stream().reduce(0, (a, b) -> a | b);
-      reservationMasks.put(dto.getRoomId(), reservationMask);
-    }
-
-    int commonMask = getCommonMask(commonUnavailability, date);
+    long epochDay = convertDateToEpochDay(date);
+    int commonMask = commonSchedule.getMask(date.getDayOfWeek());
     for (Room room : rooms) {
-      int roomMask = getRoomMask(room, date);
-      int reservationMask = reservationMasks.getOrDefault(room.getId(), 0);
+      int roomMask = room.getWeeklyUnavailability().getMask(date.getDayOfWeek());
+      int reservationMask = availabilityIndex.getReservedMask(room.getId(), epochDay);
       int availableMask = ~(roomMask | commonMask | reservationMask | passedHoursMask);
       var avail = new RoomsDayAvailability.Availability(room.getId(), room.getRoomTitle(), availableMask);
       roomAvailability.getAvailability().add(avail);
@@ -239,10 +384,110 @@ public class RoomService {
     return roomAvailability;
   }
 
+  /**
+   * Computes available hours of the rooms (all rooms if {@code roomTitles} is empty) over a date range
+   * straight into a primitive rooms x days grid, clamped to the reservation horizon like
+   * {@link #getRoomAvailabilityPerDay}.
+   */
+  public RoomsAvailabilityMatrix getRoomsAvailabilityMatrix(String startStringDate, int dayCount,
+                                                           List<String> roomTitles)
+      throws DateTimeParseException, RoomNotFoundException {
+    OffsetDateTime now = OffsetDateTime.now();
+    if (startStringDate == null) {
+      startStringDate = now.format(isoDateFormatter);
+    }
+
+    OffsetDateTime startDate = OffsetDateTime.parse(startStringDate + "T00:00:00Z");
+    OffsetDateTime endDate = startDate.plus(Duration.ofDays(dayCount));
+    if (startDate.plus(Duration.ofDays(1)).isBefore(now)) {
+      startDate = OffsetDateTime.parse(now.format(isoDateFormatter) + "T00:00:00Z");
+    }
+    if (endDate.isAfter(now.plus(Duration.ofDays(31)))) {
+      endDate = OffsetDateTime.parse(now.plus(Duration.ofDays(31)).format(isoDateFormatter) + "T00:00:00Z");
+    }
+    int days = (int) Math.max(0, Duration.between(startDate, endDate).toDays());
+
+    var lookups = withCommonSchedule(() -> roomTitles == null || roomTitles.isEmpty()
+        ? getRooms()
+        : getRoomsInOrder(roomTitles));
+    List<Room> rooms = lookups.first();
+    WeeklySchedule commonSchedule = lookups.second();
+
+    long firstEpochDay = convertDateToEpochDay(startDate);
+    DayOfWeek[] dayOfWeeks = new DayOfWeek[days];
+    int[] dayMasks = new int[days];
+    for (int day = 0; day < days; ++day) {
+      OffsetDateTime date = startDate.plus(Duration.ofDays(day));
+      dayOfWeeks[day] = date.getDayOfWeek();
+      dayMasks[day] = commonSchedule.getMask(dayOfWeeks[day]) | getPassedHoursMask(date);
+    }
+
+    int[][] masks = new int[rooms.size()][days];
+    List<String> titles = new ArrayList<>(rooms.size());
+    for (int r = 0; r < rooms.size(); ++r) {
+      Room room = rooms.get(r);
+      WeeklySchedule roomSchedule = room.getWeeklyUnavailability();
+
+      int[] roomMasks = masks[r];
+      availabilityIndex.copyReservedMasks(room.getId(), firstEpochDay, roomMasks);
+      for (int day = 0; day < days; ++day) {
+        roomMasks[day] = ~(roomMasks[day] | dayMasks[day] | roomSchedule.getMask(dayOfWeeks[day]));
+      }
+      titles.add(room.getRoomTitle());
+    }
+
+    return new RoomsAvailabilityMatrix(startDate, days, titles, masks);
+  }
+
+  /**
+   * Finds windows of {@code duration} consecutive available hours within
+   * {@code [earliestHour, latestHour]} across all rooms.
+   * A room-day mask with bit {@code h} set for every free run start is computed
+   * by AND-ing the window-restricted mask with its own shifts.
+   *
+   * @return up to {@code limit} slots ordered by date, start hour and room
+   */
+  public List<FreeSlot> findFreeSlots(String startStringDate, int dayCount, int duration,
+                                      int earliestHour, int latestHour, int limit)
+      throws DateTimeParseException {
+    List<FreeSlot> slots = new ArrayList<>();
+    if (duration > latestHour - earliestHour + 1) {
+      return slots;
+    }
+
+    RoomsAvailabilityMatrix matrix = getRoomsAvailabilityMatrix(startStringDate, dayCount, List.of());
+    int[][] masks = matrix.getMasks();
+    int windowMask = ((1 << (latestHour + 1)) - 1) & ~((1 << earliestHour) - 1);
+    int[] runStarts = new int[masks.length];
+
+    for (int day = 0; day < matrix.getDayCount() && slots.size() < limit; ++day) {
+      int anyRunStarts = 0;
+      for (int r = 0; r < masks.length; ++r) {
+        int free = masks[r][day] & windowMask;
+        int starts = free;
+        for (int shift = 1; shift < duration && starts != 0; ++shift) {
+          starts &= free >>> shift;
+        }
+        runStarts[r] = starts;
+        anyRunStarts |= starts;
+      }
+
+      OffsetDateTime date = matrix.getStartDate().plus(Duration.ofDays(day));
+      for (int hours = anyRunStarts; hours != 0 && slots.size() < limit; hours &= hours - 1) {
+        int startHour = Integer.numberOfTrailingZeros(hours);
+        for (int r = 0; r < masks.length && slots.size() < limit; ++r) {
+          if ((runStarts[r] & (1 << startHour)) != 0) {
+            slots.add(new FreeSlot(matrix.getRoomTitles().get(r), date, startHour, startHour + duration - 1));
+          }
+        }
+      }
+    }
+
+    return slots;
+  }
+
   // TODO: user not found exception?
-  public List<String> getActualReservationIds(String username) {
-    AppUser user = userService.getUser(username);
-    Long userId = user == null ? null : user.getId();
+  public List<String> getActualReservationIds(Long userId) {
     OffsetDateTime today = OffsetDateTime.parse(
         OffsetDateTime.now().format(isoDateFormatter)  + "T00:00:00Z");
 
@@ -255,9 +500,7 @@ public class RoomService {
     return reservations.stream().map(Reservation::getId).toList();
   }
 
-  public Reservation getReservationById(String username, String id) throws ReservationNotFoundException {
-    AppUser user = userService.getUser(username);
-    Long userId = user == null ? null : user.getId();
+  public Reservation getReservationById(Long userId, String id) throws ReservationNotFoundException {
 
     Query query = new Query(Criteria
         .where("userId").is(userId)
@@ -272,120 +515,390 @@ public class RoomService {
     return reservation.get();
   }
 
-  public String reserveRoom(String username, String roomTitle, String dateString,
+  public String reserveRoom(Long userId, String roomTitle, String dateString,
                             int startHour, int endHour)
       throws DateTimeParseException, RoomNotFoundException, UnavailableReservationException {
+    return reserveRoomSlots(userId, roomTitle, dateString,
+        startHour * SlotMasks.SLOTS_PER_HOUR, (endHour + 1) * SlotMasks.SLOTS_PER_HOUR);
+  }
+
+  /**
+   * Reserves the quarter-hour slots {@code [startSlot, endSlot)}.
+   */
+  public String reserveRoomSlots(Long userId, String roomTitle, String dateString,
+                                 int startSlot, int endSlot)
+      throws DateTimeParseException, RoomNotFoundException, UnavailableReservationException {
     OffsetDateTime date = OffsetDateTime.parse(dateString + "T00:00:00Z");
-    Room room = getRoom(roomTitle);
-    CommonUnavailableDays commonUnavailability = getCommonUnavailableDays();
-    int roomMask = getRoomMask(room, date);
-    int commonMask = getCommonMask(commonUnavailability, date);
-    int reservationMask = convertHourRangeToMask(startHour, endHour);
-    AppUser user = userService.getUser(username);
-    Long userId = user == null ? null : user.getId();
+    long slotsLow = SlotMasks.rangeLow(startSlot, endSlot);
+    long slotsHigh = SlotMasks.rangeHigh(startSlot, endSlot);
+
+    try {
+      var lookups = withCommonSchedule(() -> getRoom(roomTitle));
+      Room room = lookups.first();
+      WeeklySchedule commonSchedule = lookups.second();
+      checkReservationAvailability(room, commonSchedule, date, slotsLow, slotsHigh);
+
+      long epochDay = convertDateToEpochDay(date);
+      rejectKnownConflict(room.getId(), epochDay, slotsLow, slotsHigh);
+      String reservationId = lockManager.withLock(room.getId(), epochDay,
+          () -> insertReservation(room.getId(), userId, date, slotsLow, slotsHigh));
+      reservedOutcome.increment();
+      return reservationId;
+    } catch (UnavailableReservationException ex) {
+      rejectedOutcomes.getOrDefault(ex.getMessage(), failedOutcome).increment();
+      throw ex;
+    } catch (RoomNotFoundException ex) {
+      roomNotFoundOutcome.increment();
+      throw ex;
+    } catch (RuntimeException ex) {
+      failedOutcome.increment();
+      throw ex;
+    }
+  }
 
-    if (date.isAfter(OffsetDateTime.now().plus(Duration.ofDays(30)))) {
-      throw new UnavailableReservationException("Exceeded max reservation delay of 30 days");
+  public void cancelReservation(Long userId, String id) throws ReservationNotFoundException {
+
+    Query query = new Query(Criteria
+        .where("userId").is(userId)
+        .and("_id").is(id));
+    Reservation reservation = mongoTemplate.findAndRemove(query, Reservation.class, RESERVATIONS_COLLECTION);
+    if (reservation == null) {
+      throw new ReservationNotFoundException(id);
     }
 
-    if (((roomMask | commonMask) & reservationMask) != 0) {
-      throw new UnavailableReservationException("Unavailable time");
+    long epochDay = convertDateToEpochDay(reservation.getDate());
+    lockManager.withLock(reservation.getRoomId(), epochDay, () -> releaseOccupancy(reservation.getRoomId(),
+        reservation.getDate(), getSlotsLow(reservation), getSlotsHigh(reservation)));
+  }
+
+  /**
+   * Reserves every requested room independently. Rooms, common unavailability and the user
+   * are resolved once, all masks are validated in memory, and the accepted items are persisted
+   * with one bulk write per collection.
+   *
+   * @return per-item results in request order
+   */
+  public List<BatchItemResult> reserveRooms(Long userId, List<ReservationRequestDto> requests) {
+    List<String> roomTitles = requests.stream().map(ReservationRequestDto::roomTitle).toList();
+    var lookups = withCommonSchedule(() -> getRoomsByTitles(roomTitles));
+    Map<String, Room> rooms = lookups.first();
+    WeeklySchedule commonSchedule = lookups.second();
+
+    BatchItemResult[] results = new BatchItemResult[requests.size()];
+    List<PendingReservation> pending = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); ++i) {
+      ReservationRequestDto request = requests.get(i);
+      Room room = rooms.get(request.roomTitle());
+      if (room == null) {
+        results[i] = BatchItemResult.failed(null, "No room with title '%s'".formatted(request.roomTitle()));
+        continue;
+      }
+
+      try {
+        OffsetDateTime date = OffsetDateTime.parse(request.date() + "T00:00:00Z");
+        int startSlot = request.startHour() * SlotMasks.SLOTS_PER_HOUR;
+        int endSlot = (request.endHour() + 1) * SlotMasks.SLOTS_PER_HOUR;
+        long slotsLow = SlotMasks.rangeLow(startSlot, endSlot);
+        long slotsHigh = SlotMasks.rangeHigh(startSlot, endSlot);
+        checkReservationAvailability(room, commonSchedule, date, slotsLow, slotsHigh);
+        pending.add(new PendingReservation(i, room.getId(), date, convertDateToEpochDay(date), slotsLow, slotsHigh));
+      } catch (DateTimeParseException ex) {
+        results[i] = BatchItemResult.failed(null, "Date '%s' is invalid".formatted(ex.getParsedString()));
+      } catch (UnavailableReservationException ex) {
+        results[i] = BatchItemResult.failed(null, ex.getMessage());
+      }
     }
 
-    Query query = new Query(Criteria
-        .where("roomId").is(room.getId())
-        .and("date").is(date));
-    query.fields().include("reservationMask").exclude("_id");
-    List<Reservation> reservations = mongoTemplate.find(query, Reservation.class, RESERVATIONS_COLLECTION);
+    persistReservations(userId, pending, results);
+    return Arrays.asList(results);
+  }
 
-    int mask = reservations.stream()
-        .mapToInt(Reservation::getReservationMask)
-        .reduce(0, (a, b) -> a | b);
+  /**
+   * Reserves the same hours on the requested days of week, starting from the given date
+   * and bounded by the reservation horizon. Existing occupancy of the whole range is read
+   * with one query and all occurrences are persisted with one bulk write per collection.
+   * In {@link ReservationSeriesMode#ALL_OR_NOTHING} mode nothing is kept unless every
+   * occurrence is reserved.
+   */
+  public ReservationSeriesResult reserveRoomSeries(Long userId, ReservationSeriesRequestDto request)
+      throws DateTimeParseException, RoomNotFoundException, UnavailableReservationException {
+    OffsetDateTime today = OffsetDateTime.parse(OffsetDateTime.now().format(isoDateFormatter) + "T00:00:00Z");
+    OffsetDateTime startDate = request.startDate() == null
+        ? today
+        : OffsetDateTime.parse(request.startDate() + "T00:00:00Z");
+    if (startDate.isBefore(today)) {
+      startDate = today;
+    }
+    OffsetDateTime endDate = today.plus(Duration.ofDays(31));
+    if (request.weekCount() != null && startDate.plus(Duration.ofDays(7L * request.weekCount())).isBefore(endDate)) {
+      endDate = startDate.plus(Duration.ofDays(7L * request.weekCount()));
+    }
 
-    if ((mask & reservationMask) != 0) {
-      throw new UnavailableReservationException("Already reserved");
+    List<OffsetDateTime> dates = new ArrayList<>();
+    for (OffsetDateTime date = startDate; date.isBefore(endDate); date = date.plus(Duration.ofDays(1))) {
+      if (request.daysOfWeek().contains(date.getDayOfWeek())) {
+        dates.add(date);
+      }
+    }
+    if (dates.isEmpty()) {
+      throw new UnavailableReservationException("No occurrences within the reservation horizon");
     }
 
-    Reservation reservation = new Reservation(room.getId(), userId, date, reservationMask);
-    reservation = mongoTemplate.save(reservation, RESERVATIONS_COLLECTION);
+    var lookups = withCommonSchedule(() -> getRoom(request.roomTitle()));
+    Room room = lookups.first();
+    WeeklySchedule commonSchedule = lookups.second();
+    int startSlot = request.startHour() * SlotMasks.SLOTS_PER_HOUR;
+    int endSlot = (request.endHour() + 1) * SlotMasks.SLOTS_PER_HOUR;
+    long slotsLow = SlotMasks.rangeLow(startSlot, endSlot);
+    long slotsHigh = SlotMasks.rangeHigh(startSlot, endSlot);
+    boolean allOrNothing = request.mode() == ReservationSeriesMode.ALL_OR_NOTHING;
+
+    BatchItemResult[] results = new BatchItemResult[dates.size()];
+    List<ReservationLockManager.Key> keys = dates.stream()
+        .map(date -> new ReservationLockManager.Key(room.getId(), convertDateToEpochDay(date)))
+        .toList();
+    lockManager.withLocks(keys, () -> {
+      Map<Long, RoomDayOccupancy> occupancies = getOccupancies(room.getId(), dates.getFirst(), dates.getLast());
+
+      List<PendingReservation> pending = new ArrayList<>(dates.size());
+      for (int i = 0; i < dates.size(); ++i) {
+        OffsetDateTime date = dates.get(i);
+        long epochDay = convertDateToEpochDay(date);
+        try {
+          checkReservationAvailability(room, commonSchedule, date, slotsLow, slotsHigh);
+          RoomDayOccupancy occupancy = occupancies.get(epochDay);
+          if (occupancy != null && SlotMasks.intersects(
+              occupancy.getSlotsLow(), occupancy.getSlotsHigh(), slotsLow, slotsHigh)) {
+            throw new UnavailableReservationException(ALREADY_RESERVED);
+          }
+          pending.add(new PendingReservation(i, room.getId(), date, epochDay, slotsLow, slotsHigh));
+        } catch (UnavailableReservationException ex) {
+          results[i] = BatchItemResult.failed(null, ex.getMessage());
+        }
+      }
+
+      if (allOrNothing && pending.size() < dates.size()) {
+        failSeries(pending, results);
+        return;
+      }
 
-    return reservation.getId();
+      List<PendingReservation> claimed = claimOccupancies(pending, results);
+      if (allOrNothing && claimed.size() < pending.size()) {
+        releaseOccupancies(claimed);
+        failSeries(claimed, results);
+        return;
+      }
+
+      insertReservations(userId, claimed, results);
+      if (allOrNothing && Arrays.stream(results).anyMatch(result -> !result.isSucceeded())) {
+        List<Reservation> inserted = new ArrayList<>();
+        for (PendingReservation p : claimed) {
+          if (results[p.index()].isSucceeded()) {
+            Reservation reservation = createReservation(p, userId);
+            reservation.setId(results[p.index()].getReservationId());
+            inserted.add(reservation);
+          }
+        }
+        removeReservations(userId, inserted);
+        failSeries(claimed, results);
+      }
+    });
+
+    var seriesResult = new ReservationSeriesResult(room.getRoomTitle());
+    for (int i = 0; i < dates.size(); ++i) {
+      seriesResult.getOccurrences().add(new ReservationSeriesResult.Occurrence(dates.get(i), results[i]));
+    }
+    return seriesResult;
   }
 
-  public void cancelReservation(String username, String id) throws ReservationNotFoundException {
-    AppUser user = userService.getUser(username);
-    Long userId = user == null ? null : user.getId();
+  /**
+   * @return per-item results in request order
+   */
+  public List<BatchItemResult> cancelReservations(Long userId, List<String> ids) {
 
     Query query = new Query(Criteria
         .where("userId").is(userId)
-        .and("_id").is(id));
-    DeleteResult result = mongoTemplate.remove(query, Reservation.class, RESERVATIONS_COLLECTION);
-    if (result.getDeletedCount() == 0) {
-      throw new ReservationNotFoundException(id);
+        .and("_id").in(ids));
+    Map<String, Reservation> reservations = mongoTemplate
+        .find(query, Reservation.class, RESERVATIONS_COLLECTION).stream()
+        .collect(Collectors.toMap(Reservation::getId, Function.identity()));
+
+    Set<String> removedIds = Set.of();
+    if (!reservations.isEmpty()) {
+      List<ReservationLockManager.Key> keys = reservations.values().stream()
+          .map(r -> new ReservationLockManager.Key(r.getRoomId(), convertDateToEpochDay(r.getDate())))
+          .toList();
+      removedIds = lockManager.withLocks(keys, () -> removeReservations(userId, reservations.values()));
+    }
+
+    Set<String> removed = removedIds;
+    return ids.stream()
+        .map(id -> removed.contains(id)
+            ? BatchItemResult.succeeded(id)
+            : BatchItemResult.failed(id, "No reservation with id '%s'".formatted(id)))
+        .toList();
+  }
+
+
+
+  public RoomCatalogCacheStatsDto getRoomCatalogCacheStats() {
+    return new RoomCatalogCacheStatsDto(
+        roomCatalogCache.getSize(),
+        roomCatalogCache.getHitCount(),
+        roomCatalogCache.getNegativeHitCount(),
+        roomCatalogCache.getMissCount(),
+        roomCatalogCache.getEvictionCount());
+  }
+
+  public ReservationContentionDto getReservationContention(int roomLimit) {
+    List<ReservationContentionDto.RoomContention> hottestRooms = new ArrayList<>();
+    for (Map.Entry<String, Long> entry : lockManager.getHottestRooms(roomLimit).entrySet()) {
+      try {
+        String roomTitle = getRoomById(entry.getKey()).getRoomTitle();
+        hottestRooms.add(new ReservationContentionDto.RoomContention(roomTitle, entry.getValue()));
+      } catch (RoomNotFoundException ex) {
+        // deleted meanwhile
+      }
     }
+
+    return new ReservationContentionDto(
+        lockManager.getAcquisitionCount(),
+        lockManager.getContendedAcquisitionCount(),
+        lockManager.getFastRejectionCount(),
+        hottestRooms);
+  }
+
+
+
+  public ReservationBatchResultDto convertBatchResultsToDto(List<BatchItemResult> results) {
+    return new ReservationBatchResultDto(results.stream()
+        .map(result -> new ReservationBatchResultDto.ItemResult(
+            result.getReservationId(), result.isSucceeded(), result.getError()))
+        .toList());
   }
 
+  public ReservationSeriesResultDto convertSeriesResultToDto(ReservationSeriesResult seriesResult) {
+    return new ReservationSeriesResultDto(seriesResult.getRoomTitle(), seriesResult.getOccurrences().stream()
+        .map(occurrence -> new ReservationSeriesResultDto.OccurrenceResult(
+            occurrence.getDate().format(isoDateFormatter),
+            occurrence.getResult().getReservationId(),
+            occurrence.getResult().isSucceeded(),
+            occurrence.getResult().getError()))
+        .toList());
+  }
+
+  public FreeSlotsDto convertFreeSlotsToDto(List<FreeSlot> slots) {
+    return new FreeSlotsDto(slots.stream()
+        .map(slot -> new FreeSlotsDto.Slot(
+            slot.getRoomTitle(), slot.getDate().format(isoDateFormatter), slot.getStartHour(), slot.getEndHour()))
+        .toList());
+  }
 
+  /**
+   * Writes the matrix in the {@link RoomsAvailabilityMatrixDto} format without materializing it.
+   */
+  public void writeAvailabilityMatrix(RoomsAvailabilityMatrix matrix, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("startDate", matrix.getStartDate().format(isoDateFormatter));
+
+    generator.writeArrayFieldStart("dates");
+    for (int day = 0; day < matrix.getDayCount(); ++day) {
+      generator.writeString(matrix.getStartDate().plus(Duration.ofDays(day)).format(isoDateFormatter));
+    }
+    generator.writeEndArray();
+
+    generator.writeArrayFieldStart("roomAvailability");
+    for (int r = 0; r < matrix.getRoomTitles().size(); ++r) {
+      generator.writeStartObject();
+      generator.writeStringField("roomTitle", matrix.getRoomTitles().get(r));
+      generator.writeArrayFieldStart("hours");
+      for (int mask : matrix.getMasks()[r]) {
+        generator.writeStartArray();
+        for (int hours = mask & FULL_DAY_MASK; hours != 0; hours &= hours - 1) {
+          generator.writeNumber(Integer.numberOfTrailingZeros(hours));
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+
+    generator.writeEndObject();
+    generator.flush();
+  }
 
   public Room getRoomFromDto(RoomDto dto) {
     Room room = new Room(dto.roomTitle().trim());
-    room.getUnavailabilityMasks().setMonday(convertHourListToMask(dto.mondayUnavailable()));
-    room.getUnavailabilityMasks().setTuesday(convertHourListToMask(dto.tuesdayUnavailable()));
-    room.getUnavailabilityMasks().setThursday(convertHourListToMask(dto.thursdayUnavailable()));
-    room.getUnavailabilityMasks().setWednesday(convertHourListToMask(dto.wednesdayUnavailable()));
-    room.getUnavailabilityMasks().setFriday(convertHourListToMask(dto.fridayUnavailable()));
-    room.getUnavailabilityMasks().setSaturday(convertHourListToMask(dto.saturdayUnavailable()));
-    room.getUnavailabilityMasks().setSunday(convertHourListToMask(dto.sundayUnavailable()));
+    room.setWeeklyUnavailability(convertHourListsToSchedule(
+        dto.mondayUnavailable(),
+        dto.tuesdayUnavailable(),
+        dto.wednesdayUnavailable(),
+        dto.thursdayUnavailable(),
+        dto.fridayUnavailable(),
+        dto.saturdayUnavailable(),
+        dto.sundayUnavailable()));
 
     return room;
   }
 
   public CommonUnavailableDays getCommonUnavailableDaysFromDto(CommonUnavailableDaysDto dto) {
     CommonUnavailableDays unavailable = new CommonUnavailableDays();
-    unavailable.setMonday(convertHourListToMask(dto.mondayUnavailable()));
-    unavailable.setTuesday(convertHourListToMask(dto.tuesdayUnavailable()));
-    unavailable.setThursday(convertHourListToMask(dto.thursdayUnavailable()));
-    unavailable.setWednesday(convertHourListToMask(dto.wednesdayUnavailable()));
-    unavailable.setFriday(convertHourListToMask(dto.fridayUnavailable()));
-    unavailable.setSaturday(convertHourListToMask(dto.saturdayUnavailable()));
-    unavailable.setSunday(convertHourListToMask(dto.sundayUnavailable()));
+    unavailable.setWeeklyUnavailability(convertHourListsToSchedule(
+        dto.mondayUnavailable(),
+        dto.tuesdayUnavailable(),
+        dto.wednesdayUnavailable(),
+        dto.thursdayUnavailable(),
+        dto.fridayUnavailable(),
+        dto.saturdayUnavailable(),
+        dto.sundayUnavailable()));
 
     return unavailable;
   }
 
   public RoomDto convertRoomToDto(Room room) {
+    WeeklySchedule schedule = room.getWeeklyUnavailability();
     return new RoomDto(
         room.getRoomTitle(),
-        convertHourMaskToList(room.getUnavailabilityMasks().getMonday()),
-        convertHourMaskToList(room.getUnavailabilityMasks().getTuesday()),
-        convertHourMaskToList(room.getUnavailabilityMasks().getWednesday()),
-        convertHourMaskToList(room.getUnavailabilityMasks().getThursday()),
-        convertHourMaskToList(room.getUnavailabilityMasks().getFriday()),
-        convertHourMaskToList(room.getUnavailabilityMasks().getSaturday()),
-        convertHourMaskToList(room.getUnavailabilityMasks().getSunday()));
+        convertHourMaskToList(schedule.getMask(DayOfWeek.MONDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.TUESDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.WEDNESDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.THURSDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.FRIDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.SATURDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.SUNDAY)));
   }
 
   public CommonUnavailableDaysDto convertCommonUnavailableDaysToDto(CommonUnavailableDays unavailable) {
+    WeeklySchedule schedule = unavailable.getWeeklyUnavailability();
     return new CommonUnavailableDaysDto(
-        convertHourMaskToList(unavailable.getMonday()),
-        convertHourMaskToList(unavailable.getTuesday()),
-        convertHourMaskToList(unavailable.getWednesday()),
-        convertHourMaskToList(unavailable.getThursday()),
-        convertHourMaskToList(unavailable.getFriday()),
-        convertHourMaskToList(unavailable.getSaturday()),
-        convertHourMaskToList(unavailable.getSunday()));
+        convertHourMaskToList(schedule.getMask(DayOfWeek.MONDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.TUESDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.WEDNESDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.THURSDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.FRIDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.SATURDAY)),
+        convertHourMaskToList(schedule.getMask(DayOfWeek.SUNDAY)));
   }
 
   public ReservationParamsDto convertReservationToDto(Reservation reservation) {
     Room room = getRoomById(reservation.getRoomId());
-    List<Integer> hours = convertHourMaskToList(reservation.getReservationMask());
+    long slotsLow = getSlotsLow(reservation);
+    long slotsHigh = getSlotsHigh(reservation);
+    int firstSlot = slotsLow != 0
+        ? Long.numberOfTrailingZeros(slotsLow)
+        : Long.SIZE + Long.numberOfTrailingZeros(slotsHigh);
+    int lastSlot = slotsHigh != 0
+        ? 2 * Long.SIZE - 1 - Long.numberOfLeadingZeros(slotsHigh)
+        : Long.SIZE - 1 - Long.numberOfLeadingZeros(slotsLow);
 
     String roomTitle = room.getRoomTitle();
     String date = reservation.getDate().format(isoDateFormatter);
-    int startHour = hours.getFirst();
-    int endHour = hours.getLast();
+    int startHour = firstSlot / SlotMasks.SLOTS_PER_HOUR;
+    int endHour = lastSlot / SlotMasks.SLOTS_PER_HOUR;
 
-    return new ReservationParamsDto(roomTitle, date, startHour, endHour);
+    return new ReservationParamsDto(roomTitle, date, startHour, endHour,
+        SlotMasks.formatTime(firstSlot), SlotMasks.formatTime(lastSlot + 1));
   }
 
   public RoomDayRangeAvailabilityDto convertAvailabilityToDto(RoomDayRangeAvailability roomAvailability) {
@@ -422,37 +935,436 @@ public class RoomService {
 
 
 
-  private int getRoomMask(Room room, OffsetDateTime date) {
-    Integer roomMask = switch (date.getDayOfWeek()) {
-      case MONDAY -> room.getUnavailabilityMasks().getMonday();
-      case TUESDAY -> room.getUnavailabilityMasks().getTuesday();
-      case WEDNESDAY -> room.getUnavailabilityMasks().getWednesday();
-      case THURSDAY -> room.getUnavailabilityMasks().getThursday();
-      case FRIDAY -> room.getUnavailabilityMasks().getFriday();
-      case SATURDAY -> room.getUnavailabilityMasks().getSaturday();
-      case SUNDAY -> room.getUnavailabilityMasks().getSunday();
-    };
+  private Map<String, Room> getRoomsByTitles(Collection<String> roomTitles) {
+    return roomCatalogCache.findByTitles(roomTitles, titles -> {
+      Query query = new Query(Criteria.where("roomTitle").in(titles));
+      return mongoTemplate.find(query, Room.class, ROOMS_COLLECTION);
+    });
+  }
 
-    return roomMask != null ? roomMask : 0;
+  private List<Room> getRoomsInOrder(List<String> roomTitles) throws RoomNotFoundException {
+    Map<String, Room> roomsByTitle = getRoomsByTitles(roomTitles);
+    List<Room> rooms = new ArrayList<>(roomTitles.size());
+    for (String roomTitle : roomTitles) {
+      Room room = roomsByTitle.get(roomTitle);
+      if (room == null) {
+        throw new RoomNotFoundException("title", roomTitle);
+      }
+      rooms.add(room);
+    }
+    return rooms;
   }
 
-  private int getCommonMask(CommonUnavailableDays unavailable, OffsetDateTime date) {
-    Integer commonMask = switch (date.getDayOfWeek()) {
-      case MONDAY -> unavailable.getMonday();
-      case TUESDAY -> unavailable.getTuesday();
-      case WEDNESDAY -> unavailable.getWednesday();
-      case THURSDAY -> unavailable.getThursday();
-      case FRIDAY -> unavailable.getFriday();
-      case SATURDAY -> unavailable.getSaturday();
-      case SUNDAY -> unavailable.getSunday();
-    };
+  /**
+   * Runs the room lookup alongside the common schedule lookup. Both lookups are forked only while
+   * the schedule cache is cold, which is the only case where both of them may go to Mongo;
+   * once the schedule is cached the room lookup alone runs, under the same deadline.
+   */
+  private <T> ConcurrentLookups.Pair<T, WeeklySchedule> withCommonSchedule(Supplier<T> roomLookup) {
+    Optional<WeeklySchedule> cachedSchedule = commonUnavailabilityCache.getIfPresent();
+    if (cachedSchedule.isPresent()) {
+      return new ConcurrentLookups.Pair<>(concurrentLookups.one(roomLookup), cachedSchedule.get());
+    }
+    return concurrentLookups.both(roomLookup, this::getCommonUnavailableSchedule);
+  }
 
-    return commonMask != null ? commonMask : 0;
+  private void checkReservationAvailability(Room room, WeeklySchedule commonSchedule,
+                                            OffsetDateTime date, long slotsLow, long slotsHigh)
+      throws UnavailableReservationException {
+    if (date.isAfter(OffsetDateTime.now().plus(Duration.ofDays(30)))) {
+      throw new UnavailableReservationException(EXCEEDED_MAX_DELAY);
+    }
+
+    int unavailableMask = room.getWeeklyUnavailability().getMask(date.getDayOfWeek())
+        | commonSchedule.getMask(date.getDayOfWeek());
+    if (SlotMasks.intersects(SlotMasks.hoursToLow(unavailableMask), SlotMasks.hoursToHigh(unavailableMask),
+        slotsLow, slotsHigh)) {
+      throw new UnavailableReservationException(UNAVAILABLE_TIME);
+    }
+  }
+
+  /**
+   * Must be called under the (room, date) lock. Conflicts the availability index has not seen
+   * are settled by the atomic occupancy claim.
+   */
+  private String insertReservation(String roomId, Long userId, OffsetDateTime date,
+                                   long slotsLow, long slotsHigh) {
+    if (!claimOccupancy(roomId, date, slotsLow, slotsHigh)) {
+      throw new UnavailableReservationException(ALREADY_RESERVED);
+    }
+
+    Reservation reservation = createReservation(roomId, userId, date, slotsLow, slotsHigh);
+    try {
+      reservation = mongoTemplate.save(reservation, RESERVATIONS_COLLECTION);
+    } catch (RuntimeException ex) {
+      releaseOccupancy(roomId, date, slotsLow, slotsHigh);
+      throw ex;
+    }
+
+    return reservation.getId();
+  }
+
+  private void persistReservations(Long userId, List<PendingReservation> pending, BatchItemResult[] results) {
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    List<ReservationLockManager.Key> keys = pending.stream()
+        .map(p -> new ReservationLockManager.Key(p.roomId(), p.epochDay()))
+        .toList();
+    lockManager.withLocks(keys, () -> {
+      List<PendingReservation> claimable = rejectKnownConflicts(pending, results);
+      List<PendingReservation> claimed = claimOccupancies(claimable, results);
+      insertReservations(userId, claimed, results);
+    });
   }
 
-  private Integer convertHourListToMask(List<Integer> hours) {
+  /**
+   * Rejects slots that the availability index knows to be reserved, without taking the lock
+   * or going to Mongo. The index only ever rejects: slots it considers free are still claimed
+   * in Mongo, which settles the conflicts the index has not seen yet. Slots released on another node
+   * are rejected until its broadcast or the next resync reaches the index.
+   */
+  private void rejectKnownConflict(String roomId, long epochDay, long slotsLow, long slotsHigh)
+      throws UnavailableReservationException {
+    if (availabilityIndex.isReserved(roomId, epochDay, slotsLow, slotsHigh)) {
+      lockManager.recordFastRejection();
+      throw new UnavailableReservationException(ALREADY_RESERVED);
+    }
+  }
+
+  /**
+   * Must be called under the locks of all pending keys. Rejects items overlapping the availability index
+   * or an earlier item of the same batch, like {@link #rejectKnownConflict}; the rest is settled
+   * by the occupancy claims.
+   */
+  private List<PendingReservation> rejectKnownConflicts(List<PendingReservation> pending,
+                                                        BatchItemResult[] results) {
+    Map<ReservationLockManager.Key, long[]> batchSlots = new HashMap<>();
+    List<PendingReservation> claimable = new ArrayList<>(pending.size());
+
+    for (PendingReservation p : pending) {
+      var key = new ReservationLockManager.Key(p.roomId(), p.epochDay());
+      long[] slots = batchSlots.computeIfAbsent(key, k -> new long[2]);
+      if (SlotMasks.intersects(slots[0], slots[1], p.slotsLow(), p.slotsHigh())
+          || availabilityIndex.isReserved(p.roomId(), p.epochDay(), p.slotsLow(), p.slotsHigh())) {
+        lockManager.recordFastRejection();
+        results[p.index()] = BatchItemResult.failed(null, ALREADY_RESERVED);
+        continue;
+      }
+      slots[0] |= p.slotsLow();
+      slots[1] |= p.slotsHigh();
+      claimable.add(p);
+    }
+
+    return claimable;
+  }
+
+  private List<PendingReservation> claimOccupancies(List<PendingReservation> claimable, BatchItemResult[] results) {
+    if (claimable.isEmpty()) {
+      return claimable;
+    }
+
+    BulkOperations claimOps = mongoTemplate
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+    for (PendingReservation p : claimable) {
+      claimOps.upsert(buildClaimQuery(p.roomId(), p.date(), p.slotsLow(), p.slotsHigh()),
+          buildBitwiseUpdate("or", p.slotsLow(), p.slotsHigh()));
+    }
+    Map<Integer, BulkWriteError> errors = executeBulk(claimOps);
+
+    List<PendingReservation> claimed = new ArrayList<>(claimable.size());
+    for (int i = 0; i < claimable.size(); ++i) {
+      PendingReservation p = claimable.get(i);
+      BulkWriteError error = errors.get(i);
+      if (error == null) {
+        claimed.add(p);
+      } else if (error.getCode() == DUPLICATE_KEY_ERROR_CODE) {
+        availabilitySync.reload(p.roomId(), p.epochDay());
+        results[p.index()] = BatchItemResult.failed(null, ALREADY_RESERVED);
+      } else {
+        log.warn("Failed to claim occupancy (roomId={}, date={}): {}", p.roomId(), p.date(), error.getMessage());
+        results[p.index()] = BatchItemResult.failed(null, "Reservation failed");
+      }
+    }
+
+    return claimed;
+  }
+
+  private void insertReservations(Long userId, List<PendingReservation> claimed, BatchItemResult[] results) {
+    if (claimed.isEmpty()) {
+      return;
+    }
+
+    List<Reservation> reservations = new ArrayList<>(claimed.size());
+    for (PendingReservation p : claimed) {
+      Reservation reservation = createReservation(p, userId);
+      reservation.setId(new ObjectId().toHexString());
+      reservations.add(reservation);
+    }
+
+    BulkOperations insertOps = mongoTemplate
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, Reservation.class, RESERVATIONS_COLLECTION)
+        .insert(reservations);
+    Map<Integer, BulkWriteError> errors = executeBulk(insertOps);
+
+    List<ReservationLockManager.Key> reservedKeys = new ArrayList<>(claimed.size());
+    for (int i = 0; i < claimed.size(); ++i) {
+      PendingReservation p = claimed.get(i);
+      BulkWriteError error = errors.get(i);
+      if (error != null) {
+        log.warn("Failed to insert reservation (roomId={}, date={}): {}", p.roomId(), p.date(), error.getMessage());
+        releaseOccupancy(p.roomId(), p.date(), p.slotsLow(), p.slotsHigh());
+        results[p.index()] = BatchItemResult.failed(null, "Reservation failed");
+        continue;
+      }
+      availabilityIndex.reserve(p.roomId(), p.epochDay(), p.slotsLow(), p.slotsHigh());
+      reservedKeys.add(new ReservationLockManager.Key(p.roomId(), p.epochDay()));
+      results[p.index()] = BatchItemResult.succeeded(reservations.get(i).getId());
+    }
+    availabilitySync.publish(reservedKeys);
+  }
+
+  /**
+   * @return occupancy of the room by epoch day, inclusive of both dates
+   */
+  private Map<Long, RoomDayOccupancy> getOccupancies(String roomId, OffsetDateTime firstDate,
+                                                     OffsetDateTime lastDate) {
+    Query query = new Query(Criteria
+        .where("roomId").is(roomId)
+        .and("date").gte(firstDate).lte(lastDate));
+    query.fields().include("date", "slotsLow", "slotsHigh").exclude("_id");
+
+    Map<Long, RoomDayOccupancy> occupancies = new HashMap<>();
+    for (RoomDayOccupancy occupancy : mongoTemplate.find(query, RoomDayOccupancy.class, OCCUPANCY_COLLECTION)) {
+      if (occupancy.getDate() != null && occupancy.getSlotsLow() != null && occupancy.getSlotsHigh() != null) {
+        occupancies.put(convertDateToEpochDay(occupancy.getDate()), occupancy);
+      }
+    }
+    return occupancies;
+  }
+
+  private void failSeries(List<PendingReservation> accepted, BatchItemResult[] results) {
+    for (PendingReservation p : accepted) {
+      results[p.index()] = BatchItemResult.failed(null, "Series is not available as a whole");
+    }
+  }
+
+  private void releaseOccupancies(List<PendingReservation> claimed) {
+    if (claimed.isEmpty()) {
+      return;
+    }
+
+    BulkOperations releaseOps = mongoTemplate
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+    for (PendingReservation p : claimed) {
+      releaseOps.updateOne(buildOccupancyQuery(p.roomId(), p.date()),
+          buildBitwiseUpdate("and", ~p.slotsLow(), ~p.slotsHigh()));
+    }
+    releaseOps.execute();
+  }
+
+  /**
+   * Must be called under the locks of all the reservations. The reservations are removed with one command
+   * and their slots released with one bulk write. If another node has cancelled some of them meanwhile,
+   * the removed ones cannot be told apart: only slots that no remaining reservation of the same room day
+   * holds are released then, and every reservation is reported as removed.
+   *
+   * @return ids of the removed reservations
+   */
+  private Set<String> removeReservations(Long userId, Collection<Reservation> reservations) {
+    if (reservations.isEmpty()) {
+      return Set.of();
+    }
+    List<String> ids = reservations.stream().map(Reservation::getId).toList();
+    Query query = new Query(Criteria
+        .where("userId").is(userId)
+        .and("_id").in(ids));
+    long removedCount = mongoTemplate.remove(query, Reservation.class, RESERVATIONS_COLLECTION).getDeletedCount();
+    if (removedCount == 0) {
+      return Set.of();
+    }
+
+    List<ReservationLockManager.Key> releasedKeys = reservations.stream()
+        .map(r -> new ReservationLockManager.Key(r.getRoomId(), convertDateToEpochDay(r.getDate())))
+        .distinct()
+        .toList();
+    Map<ReservationLockManager.Key, long[]> heldSlots = removedCount < reservations.size()
+        ? getReservedSlots(releasedKeys)
+        : Map.of();
+
+    BulkOperations releaseOps = mongoTemplate
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+    for (Reservation reservation : reservations) {
+      long epochDay = convertDateToEpochDay(reservation.getDate());
+      long[] held = heldSlots.getOrDefault(new ReservationLockManager.Key(reservation.getRoomId(), epochDay),
+          new long[2]);
+      long slotsLow = getSlotsLow(reservation) & ~held[0];
+      long slotsHigh = getSlotsHigh(reservation) & ~held[1];
+      releaseOps.updateOne(buildOccupancyQuery(reservation.getRoomId(), reservation.getDate()),
+          buildBitwiseUpdate("and", ~slotsLow, ~slotsHigh));
+      availabilityIndex.release(reservation.getRoomId(), epochDay, slotsLow, slotsHigh);
+    }
+    releaseOps.execute();
+
+    availabilitySync.publish(releasedKeys);
+    return new HashSet<>(ids);
+  }
+
+  /**
+   * @return slots held by the stored reservations of the room days, by room day
+   */
+  private Map<ReservationLockManager.Key, long[]> getReservedSlots(Collection<ReservationLockManager.Key> keys) {
+    Set<String> roomIds = new HashSet<>();
+    Set<OffsetDateTime> dates = new HashSet<>();
+    for (ReservationLockManager.Key key : keys) {
+      roomIds.add(key.roomId());
+      dates.add(convertEpochDayToDate(key.epochDay()));
+    }
+    Query query = new Query(Criteria
+        .where("roomId").in(roomIds)
+        .and("date").in(dates));
+    query.fields().include("roomId", "date", "reservationMask", "slotMaskLow", "slotMaskHigh").exclude("_id");
+
+    Map<ReservationLockManager.Key, long[]> reservedSlots = new HashMap<>();
+    for (Reservation reservation : mongoTemplate.find(query, Reservation.class, RESERVATIONS_COLLECTION)) {
+      var key = new ReservationLockManager.Key(reservation.getRoomId(), convertDateToEpochDay(reservation.getDate()));
+      long[] slots = reservedSlots.computeIfAbsent(key, k -> new long[2]);
+      slots[0] |= getSlotsLow(reservation);
+      slots[1] |= getSlotsHigh(reservation);
+    }
+    return reservedSlots;
+  }
+
+  private Map<Integer, BulkWriteError> executeBulk(BulkOperations operations) {
+    try {
+      operations.execute();
+      return Map.of();
+    } catch (BulkOperationException ex) {
+      Map<Integer, BulkWriteError> errors = HashMap.newHashMap(ex.getErrors().size());
+      for (BulkWriteError error : ex.getErrors()) {
+        errors.put(error.getIndex(), error);
+      }
+      return errors;
+    }
+  }
+
+  /**
+   * Atomically marks the slots as occupied unless any of them already is.
+   * A conflicting occupancy document fails the filter, so the upsert attempts
+   * an insert and is rejected by the unique (roomId, date) index.
+   * The availability index is refreshed with the resulting slots, which also
+   * picks up slots occupied by other nodes, or reloaded if the claim fails.
+   */
+  private boolean claimOccupancy(String roomId, OffsetDateTime date, long slotsLow, long slotsHigh) {
+    Query query = buildClaimQuery(roomId, date, slotsLow, slotsHigh);
+    FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    RoomDayOccupancy occupancy;
+    try {
+      occupancy = mongoTemplate.findAndModify(query, buildBitwiseUpdate("or", slotsLow, slotsHigh), options,
+          RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+    } catch (DuplicateKeyException ex) {
+      availabilitySync.reload(roomId, convertDateToEpochDay(date));
+      return false;
+    }
+
+    long epochDay = convertDateToEpochDay(date);
+    if (occupancy != null && occupancy.getSlotsLow() != null && occupancy.getSlotsHigh() != null) {
+      availabilityIndex.set(roomId, epochDay, occupancy.getSlotsLow(), occupancy.getSlotsHigh());
+    }
+    availabilitySync.publish(List.of(new ReservationLockManager.Key(roomId, epochDay)));
+    return true;
+  }
+
+  private void releaseOccupancy(String roomId, OffsetDateTime date, long slotsLow, long slotsHigh) {
+    Query query = buildOccupancyQuery(roomId, date);
+    FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+
+    RoomDayOccupancy occupancy = mongoTemplate.findAndModify(query,
+        buildBitwiseUpdate("and", ~slotsLow, ~slotsHigh), options, RoomDayOccupancy.class, OCCUPANCY_COLLECTION);
+
+    long occupiedLow = occupancy == null || occupancy.getSlotsLow() == null ? 0 : occupancy.getSlotsLow();
+    long occupiedHigh = occupancy == null || occupancy.getSlotsHigh() == null ? 0 : occupancy.getSlotsHigh();
+    long epochDay = convertDateToEpochDay(date);
+    availabilityIndex.set(roomId, epochDay, occupiedLow, occupiedHigh);
+    availabilitySync.publish(List.of(new ReservationLockManager.Key(roomId, epochDay)));
+  }
+
+  private Query buildOccupancyQuery(String roomId, OffsetDateTime date) {
+    return new Query(Criteria
+        .where("roomId").is(roomId)
+        .and("date").is(date));
+  }
+
+  private Query buildClaimQuery(String roomId, OffsetDateTime date, long slotsLow, long slotsHigh) {
+    // a numeric $bitsAllClear mask must fit into a non-negative int32, so the bit positions are listed instead
+    return new Query(Criteria
+        .where("roomId").is(roomId)
+        .and("date").is(date)
+        .and("slotsLow").bits().allClear(SlotMasks.toBitPositions(slotsLow))
+        .and("slotsHigh").bits().allClear(SlotMasks.toBitPositions(slotsHigh)));
+  }
+
+  private Update buildBitwiseUpdate(String operator, long slotsLow, long slotsHigh) {
+    return Update.fromDocument(new Document("$bit", new Document()
+        .append("slotsLow", new Document(operator, slotsLow))
+        .append("slotsHigh", new Document(operator, slotsHigh))));
+  }
+
+  private Reservation createReservation(String roomId, Long userId, OffsetDateTime date,
+                                        long slotsLow, long slotsHigh) {
+    return new Reservation(roomId, userId, date, SlotMasks.toTouchedHours(slotsLow, slotsHigh), slotsLow, slotsHigh);
+  }
+
+  private Reservation createReservation(PendingReservation pending, Long userId) {
+    return createReservation(pending.roomId(), userId, pending.date(), pending.slotsLow(), pending.slotsHigh());
+  }
+
+  /**
+   * Reservations made before slot masks existed carry only the hour mask.
+   */
+  private long getSlotsLow(Reservation reservation) {
+    return reservation.getSlotMaskLow() != null
+        ? reservation.getSlotMaskLow()
+        : SlotMasks.hoursToLow(reservation.getReservationMask());
+  }
+
+  private long getSlotsHigh(Reservation reservation) {
+    return reservation.getSlotMaskHigh() != null
+        ? reservation.getSlotMaskHigh()
+        : SlotMasks.hoursToHigh(reservation.getReservationMask());
+  }
+
+  private int getPassedHoursMask(OffsetDateTime date) {
+    OffsetDateTime now = OffsetDateTime.now();
+    return date.isBefore(now) ? (1 << (now.getHour() + 1)) - 1 : 0;
+  }
+
+  /**
+   * Day lists go in {@link DayOfWeek} order; missing lists mean no hours.
+   */
+  @SafeVarargs
+  private WeeklySchedule convertHourListsToSchedule(List<Integer>... dayHours) {
+    int[] masks = new int[WeeklySchedule.DAYS_PER_WEEK];
+    for (int day = 0; day < masks.length; ++day) {
+      masks[day] = convertHourListToMask(dayHours[day]);
+    }
+    return WeeklySchedule.of(masks);
+  }
+
+  private WeeklySchedule convertLegacyMasksToSchedule(Document legacyMasks, String[] legacyFields) {
+    int[] masks = new int[WeeklySchedule.DAYS_PER_WEEK];
+    for (int day = 0; legacyMasks != null && day < masks.length; ++day) {
+      Integer mask = legacyMasks.getInteger(legacyFields[day]);
+      masks[day] = mask != null ? mask : 0;
+    }
+    return WeeklySchedule.of(masks);
+  }
+
+  private int convertHourListToMask(List<Integer> hours) {
     if (hours == null) {
-      return null;
+      return 0;
     }
     int mask = 0;
     for (int hour : hours) {
@@ -465,20 +1377,18 @@ public class RoomService {
     if (mask == null) {
       return null; // NOSONAR
     }
-    List<Integer> list = new ArrayList<>();
-    for (int i = 0; i < 24; ++i) {
-      if ((mask & (1 << i)) != 0) {
-        list.add(i);
-      }
+    List<Integer> list = new ArrayList<>(Integer.bitCount(mask & FULL_DAY_MASK));
+    for (int hours = mask & FULL_DAY_MASK; hours != 0; hours &= hours - 1) {
+      list.add(Integer.numberOfTrailingZeros(hours));
     }
     return list;
   }
 
-  private int convertHourRangeToMask(int startHour, int endHour) {
-    int mask = 0;
-    for (int hour = startHour; hour <= endHour; ++hour) {
-      mask |= 1 << hour;
-    }
-    return mask;
+  private long convertDateToEpochDay(OffsetDateTime date) {
+    return date.toLocalDate().toEpochDay();
+  }
+
+  private OffsetDateTime convertEpochDayToDate(long epochDay) {
+    return LocalDate.ofEpochDay(epochDay).atStartOfDay().atOffset(ZoneOffset.UTC);
   }
 }
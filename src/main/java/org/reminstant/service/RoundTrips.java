@@ -0,0 +1,141 @@
+package org.reminstant.service;
+
+import org.reminstant.exception.RoundTripBudgetExceededException;
+
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+
+/**
+ * Counts the operations sent to Mongo, Postgres and Redis on behalf of the current scope,
+ * usually one request. The store clients report every operation through {@link #record(Store)};
+ * operations issued outside any scope, such as background rebuilds, are not counted.
+ * <p>
+ * Scopes nest: an operation counts towards the current scope and all the scopes enclosing it,
+ * so a single call can be measured inside a request:
+ * <pre>{@code
+ * try (RoundTrips.Scope scope = RoundTrips.open()) {
+ *   roomService.reserveRoom(userId, roomTitle, date, startHour, endHour);
+ *   scope.assertAtMost(2);
+ * }
+ * }</pre>
+ */
+public final class RoundTrips {
+
+  public enum Store {
+    MONGO, JDBC, REDIS;
+
+    public String tag() {
+      return name().toLowerCase();
+    }
+  }
+
+  public static final class Scope implements AutoCloseable {
+
+    private final Scope parent;
+    private final AtomicIntegerArray counts;
+
+    private Scope(Scope parent) {
+      this.parent = parent;
+      this.counts = new AtomicIntegerArray(Store.values().length);
+    }
+
+    public int getCount(Store store) {
+      return counts.get(store.ordinal());
+    }
+
+    public int getTotal() {
+      int total = 0;
+      for (int i = 0; i < counts.length(); ++i) {
+        total += counts.get(i);
+      }
+      return total;
+    }
+
+    public void assertAtMost(int budget) throws RoundTripBudgetExceededException {
+      int total = getTotal();
+      if (total > budget) {
+        throw new RoundTripBudgetExceededException(budget, total, toString());
+      }
+    }
+
+    public void assertAtMost(Store store, int budget) throws RoundTripBudgetExceededException {
+      int count = getCount(store);
+      if (count > budget) {
+        throw new RoundTripBudgetExceededException(budget, count, toString());
+      }
+    }
+
+    /**
+     * Restores the enclosing scope; must be called on the thread that opened this one.
+     */
+    @Override
+    public void close() {
+      if (parent != null) {
+        CURRENT.set(parent);
+      } else {
+        CURRENT.remove();
+      }
+    }
+
+    /**
+     * @return counts as {@code mongo=2;jdbc=0;redis=1}
+     */
+    @Override
+    public String toString() {
+      StringJoiner joiner = new StringJoiner(";");
+      for (Store store : Store.values()) {
+        joiner.add(store.tag() + "=" + getCount(store));
+      }
+      return joiner.toString();
+    }
+
+    private void increment(Store store) {
+      for (Scope scope = this; scope != null; scope = scope.parent) {
+        scope.counts.incrementAndGet(store.ordinal());
+      }
+    }
+  }
+
+  private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+  private RoundTrips() {
+  }
+
+  public static Scope open() {
+    Scope scope = new Scope(CURRENT.get());
+    CURRENT.set(scope);
+    return scope;
+  }
+
+  public static void record(Store store) {
+    Scope scope = CURRENT.get();
+    if (scope != null) {
+      scope.increment(store);
+    }
+  }
+
+  /**
+   * Binds the caller's scope to the thread that eventually runs {@code task},
+   * so that work handed off to other threads still counts towards the request.
+   */
+  public static <T> Supplier<T> propagate(Supplier<T> task) {
+    Scope scope = CURRENT.get();
+    if (scope == null) {
+      return task;
+    }
+    return () -> {
+      Scope previous = CURRENT.get();
+      CURRENT.set(scope);
+      try {
+        return task.get();
+      } finally {
+        if (previous != null) {
+          CURRENT.set(previous);
+        } else {
+          CURRENT.remove();
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,107 @@
+package org.reminstant.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bit operations on day slot masks. A day consists of {@link #SLOTS_PER_DAY} quarter-hour slots
+ * stored as two longs: slots 0-63 in the low word, slots 64-95 in the low half of the high word.
+ * Hour masks (bit {@code h} == hour {@code h}) are projections of slot masks: every hour bit maps
+ * to {@link #SLOTS_PER_HOUR} adjacent slot bits.
+ */
+public final class SlotMasks {
+
+  public static final int SLOTS_PER_HOUR = 4;
+  public static final int SLOTS_PER_DAY = 24 * SLOTS_PER_HOUR;
+  public static final int MINUTES_PER_SLOT = 60 / SLOTS_PER_HOUR;
+
+  private static final int HOURS_PER_WORD = Long.SIZE / SLOTS_PER_HOUR;
+
+  private SlotMasks() {
+  }
+
+  /**
+   * @return low word of the slots {@code [fromSlot, toSlot)}
+   */
+  public static long rangeLow(int fromSlot, int toSlot) {
+    return lowBits(Math.min(toSlot, Long.SIZE)) & ~lowBits(Math.min(fromSlot, Long.SIZE));
+  }
+
+  /**
+   * @return high word of the slots {@code [fromSlot, toSlot)}
+   */
+  public static long rangeHigh(int fromSlot, int toSlot) {
+    return lowBits(Math.max(toSlot - Long.SIZE, 0)) & ~lowBits(Math.max(fromSlot - Long.SIZE, 0));
+  }
+
+  public static long hoursToLow(int hourMask) {
+    return spreadNibbles(hourMask & 0xFFFF) * 0xF;
+  }
+
+  public static long hoursToHigh(int hourMask) {
+    return spreadNibbles((hourMask >>> HOURS_PER_WORD) & 0xFF) * 0xF;
+  }
+
+  /**
+   * @return hours with at least one slot set
+   */
+  public static int toTouchedHours(long low, long high) {
+    return compactNibbles(low) | (compactNibbles(high) << HOURS_PER_WORD);
+  }
+
+  public static boolean intersects(long lowA, long highA, long lowB, long highB) {
+    return ((lowA & lowB) | (highA & highB)) != 0;
+  }
+
+  /**
+   * @return positions of the set bits, as accepted by the $bitsAllClear query operator
+   */
+  public static List<Integer> toBitPositions(long word) {
+    List<Integer> positions = new ArrayList<>(Long.bitCount(word));
+    for (long bits = word; bits != 0; bits &= bits - 1) {
+      positions.add(Long.numberOfTrailingZeros(bits));
+    }
+    return positions;
+  }
+
+  public static int parseTime(String time) {
+    int hours = Integer.parseInt(time, 0, 2, 10);
+    int minutes = Integer.parseInt(time, 3, 5, 10);
+    return hours * SLOTS_PER_HOUR + minutes / MINUTES_PER_SLOT;
+  }
+
+  public static String formatTime(int slot) {
+    return "%02d:%02d".formatted(slot / SLOTS_PER_HOUR, slot % SLOTS_PER_HOUR * MINUTES_PER_SLOT);
+  }
+
+
+
+  private static long lowBits(int count) {
+    // count == 64 wraps the shift to 0 and is completed by the sign mask
+    return ((1L << (count & (Long.SIZE - 1))) - 1) | -(long) (count >>> 6);
+  }
+
+  /**
+   * Moves bit {@code i} of a 16-bit value to bit {@code 4 * i}.
+   */
+  private static long spreadNibbles(long value) {
+    long x = value;
+    x = (x | (x << 24)) & 0x000000FF000000FFL;
+    x = (x | (x << 12)) & 0x000F000F000F000FL;
+    x = (x | (x << 6)) & 0x0303030303030303L;
+    x = (x | (x << 3)) & 0x1111111111111111L;
+    return x;
+  }
+
+  /**
+   * Sets bit {@code i} of the result if any bit of nibble {@code i} is set.
+   */
+  private static int compactNibbles(long value) {
+    long x = (value | (value >>> 1) | (value >>> 2) | (value >>> 3)) & 0x1111111111111111L;
+    x = (x | (x >>> 3)) & 0x0303030303030303L;
+    x = (x | (x >>> 6)) & 0x000F000F000F000FL;
+    x = (x | (x >>> 12)) & 0x000000FF000000FFL;
+    x = (x | (x >>> 24)) & 0xFFFFL;
+    return (int) x;
+  }
+}
@@ -0,0 +1,362 @@
+package org.reminstant.service;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.reminstant.dto.http.response.SlowMongoCommandsDto;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects Mongo commands slower than the threshold, grouped by shape: the command with every
+ * literal replaced by {@code "?"}. The first slow command of each queryable shape is explained
+ * in the background, so that collection scans and unused indexes show up without reproducing the load.
+ * <p>
+ * Commands are explained with the {@code queryPlanner} verbosity, which plans the command without
+ * running it. The driver does not keep the command for the completion event, and copying every command
+ * would tax the fast ones, so commands are copied only on collections that recently had a slow command
+ * of unknown shape. A slow command that started before its collection was sampled is counted under
+ * the command name alone with the {@link ExplainStatus#UNCAPTURED} status.
+ * <p>
+ * Commands whose completion is never reported are dropped after the configured expiry.
+ */
+@Slf4j
+@Component
+public class SlowMongoCommandLog implements CommandListener {
+
+  public enum ExplainStatus {
+    PENDING, CAPTURED, FAILED, UNSUPPORTED, UNCAPTURED
+  }
+
+  private static final Set<String> EXPLAINABLE_COMMANDS = Set.of(
+      "find", "aggregate", "count", "distinct", "findAndModify");
+  private static final Set<String> IGNORED_COMMANDS = Set.of(
+      "explain", "getMore", "killCursors", "endSessions", "hello", "isMaster", "ping", "buildInfo",
+      "saslStart", "saslContinue", "commitTransaction", "abortTransaction");
+  private static final Set<String> SESSION_FIELDS = Set.of(
+      "lsid", "txnNumber", "autocommit", "startTransaction", "$clusterTime", "$db", "$readPreference",
+      "readConcern", "writeConcern");
+  private static final BsonString LITERAL = new BsonString("?");
+  private static final int MAX_PENDING_COMMANDS = 10_000;
+
+  /**
+   * {@code command == null} for commands that cannot be explained
+   */
+  private record PendingCommand(String commandName, String databaseName, String collection, BsonDocument command,
+                                long startedAtNanos) {
+  }
+
+  private record Explain(List<String> stages, boolean collectionScan, String winningPlan) {
+  }
+
+  private static final class ShapeStats {
+    private final String commandName;
+    private final String collection;
+    private final String shape;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastSeenAtMillis;
+    private volatile ExplainStatus explainStatus;
+    private volatile Explain explain;
+
+    private ShapeStats(String commandName, String collection, String shape, ExplainStatus explainStatus) {
+      this.commandName = commandName;
+      this.collection = collection;
+      this.shape = shape;
+      this.explainStatus = explainStatus;
+    }
+  }
+
+  private final ObjectProvider<MongoDatabaseFactory> databaseFactory;
+  private final long thresholdNanos;
+  private final int maxShapes;
+  private final long pendingExpiryNanos;
+  private final ExecutorService explainExecutor;
+
+  private final Map<Integer, PendingCommand> pending;
+  private final Set<String> sampledTargets;
+  private final Map<String, ShapeStats> shapes;
+  private final LongAdder untrackedCommands;
+  private final LongAdder unmeasuredCommands;
+
+  public SlowMongoCommandLog(ObjectProvider<MongoDatabaseFactory> databaseFactory,
+                             @Value("${mongodb.slow-commands.threshold}") Duration threshold,
+                             @Value("${mongodb.slow-commands.max-shapes}") int maxShapes,
+                             @Value("${mongodb.slow-commands.pending-expiry}") Duration pendingExpiry) {
+    if (maxShapes <= 0) {
+      throw new IllegalArgumentException("Max shapes must be positive");
+    }
+    this.databaseFactory = databaseFactory;
+    this.thresholdNanos = threshold.toNanos();
+    this.maxShapes = maxShapes;
+    this.pendingExpiryNanos = pendingExpiry.toNanos();
+    this.explainExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "mongo-explain");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    this.pending = new ConcurrentHashMap<>();
+    this.sampledTargets = ConcurrentHashMap.newKeySet();
+    this.shapes = new ConcurrentHashMap<>();
+    this.untrackedCommands = new LongAdder();
+    this.unmeasuredCommands = new LongAdder();
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    String commandName = event.getCommandName();
+    if (IGNORED_COMMANDS.contains(commandName)) {
+      return;
+    }
+    if (pending.size() >= MAX_PENDING_COMMANDS) {
+      // the command is not timed, so it is not known whether it is slow
+      unmeasuredCommands.increment();
+      return;
+    }
+    BsonDocument command = event.getCommand();
+    BsonValue target = command.get(commandName);
+    String collection = target != null && target.isString() ? target.asString().getValue() : "";
+    BsonDocument copy = sampledTargets.contains(targetOf(commandName, collection)) ? command.clone() : null;
+    pending.put(event.getRequestId(),
+        new PendingCommand(commandName, event.getDatabaseName(), collection, copy, System.nanoTime()));
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    complete(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    complete(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+  }
+
+  public SlowMongoCommandsDto getSlowCommands() {
+    List<SlowMongoCommandsDto.CommandShapeDto> shapeDtos = shapes.values().stream()
+        .sorted(Comparator.comparingLong((ShapeStats s) -> s.totalNanos.sum()).reversed())
+        .map(SlowMongoCommandLog::convertShapeToDto)
+        .toList();
+
+    return new SlowMongoCommandsDto(
+        Duration.ofNanos(thresholdNanos).toMillis(),
+        untrackedCommands.sum(),
+        unmeasuredCommands.sum(),
+        shapeDtos);
+  }
+
+  /**
+   * Drops commands whose completion was never reported, e.g. because their connection was closed.
+   */
+  @Scheduled(
+      fixedDelayString = "${mongodb.slow-commands.pending-expiry}",
+      initialDelayString = "${mongodb.slow-commands.pending-expiry}")
+  public void expirePending() {
+    long now = System.nanoTime();
+    pending.values().removeIf(command -> now - command.startedAtNanos() > pendingExpiryNanos);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    explainExecutor.shutdownNow();
+  }
+
+
+
+  private void complete(int requestId, long elapsedNanos) {
+    PendingCommand command = pending.remove(requestId);
+    if (command == null || elapsedNanos < thresholdNanos) {
+      return;
+    }
+
+    String target = targetOf(command.commandName(), command.collection());
+    boolean explainable = EXPLAINABLE_COMMANDS.contains(command.commandName());
+    String shape;
+    if (command.command() != null) {
+      shape = shapeOf(command.command(), command.commandName()).toJson();
+    } else {
+      shape = new BsonDocument(command.commandName(), new BsonString(command.collection())).toJson();
+      if (explainable) {
+        // the next commands on the target are copied, so that the shape of the slow ones is found
+        sampledTargets.add(target);
+      }
+    }
+
+    ShapeStats stats = shapes.get(shape);
+    if (stats == null) {
+      if (shapes.size() >= maxShapes) {
+        untrackedCommands.increment();
+        return;
+      }
+      ExplainStatus status = command.command() != null ? ExplainStatus.PENDING
+          : explainable ? ExplainStatus.UNCAPTURED
+          : ExplainStatus.UNSUPPORTED;
+      ShapeStats created = new ShapeStats(command.commandName(), command.collection(), shape, status);
+      stats = shapes.putIfAbsent(shape, created);
+      if (stats == null) {
+        stats = created;
+        log.warn("Slow Mongo command on '{}' took {} ms: {}",
+            command.collection(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), shape);
+        if (command.command() != null) {
+          explainExecutor.execute(() -> explain(created, command));
+        }
+      }
+    } else if (command.command() != null) {
+      // the slow command had a known shape, so the target no longer needs to be sampled
+      sampledTargets.remove(target);
+    }
+
+    stats.count.increment();
+    stats.totalNanos.add(elapsedNanos);
+    stats.maxNanos.accumulate(elapsedNanos);
+    stats.lastSeenAtMillis = System.currentTimeMillis();
+  }
+
+  private void explain(ShapeStats stats, PendingCommand command) {
+    BsonDocument explained = command.command();
+    SESSION_FIELDS.forEach(explained::remove);
+    Document explainCommand = new Document("explain", explained).append("verbosity", "queryPlanner");
+
+    try {
+      Document result = databaseFactory.getObject()
+          .getMongoDatabase(command.databaseName())
+          .runCommand(explainCommand);
+      Document winningPlan = findWinningPlan(result);
+      if (winningPlan == null) {
+        stats.explainStatus = ExplainStatus.FAILED;
+        log.debug("No winning plan in the explain of {}", stats.shape);
+        return;
+      }
+
+      List<String> stages = new ArrayList<>();
+      collectStages(winningPlan, stages);
+      stats.explain = new Explain(stages, stages.contains("COLLSCAN"), winningPlan.toJson());
+      stats.explainStatus = ExplainStatus.CAPTURED;
+      if (stats.explain.collectionScan()) {
+        log.warn("Slow Mongo command on '{}' scans the whole collection: {}", stats.collection, stats.shape);
+      }
+    } catch (RuntimeException ex) {
+      stats.explainStatus = ExplainStatus.FAILED;
+      log.warn("Failed to explain slow Mongo command {}", stats.shape, ex);
+    }
+  }
+
+  private static String targetOf(String commandName, String collection) {
+    return commandName + ":" + collection;
+  }
+
+  /**
+   * Replaces every literal with {@code "?"}; field paths such as {@code "$roomId"} are kept,
+   * and consecutive array elements of the same shape are collapsed into one.
+   */
+  private static BsonDocument shapeOf(BsonDocument command, String commandName) {
+    BsonDocument shape = new BsonDocument();
+    for (Map.Entry<String, BsonValue> entry : command.entrySet()) {
+      String key = entry.getKey();
+      if (SESSION_FIELDS.contains(key)) {
+        continue;
+      }
+      shape.put(key, key.equals(commandName) ? entry.getValue() : strip(entry.getValue()));
+    }
+    return shape;
+  }
+
+  private static BsonValue strip(BsonValue value) {
+    if (value.isDocument()) {
+      BsonDocument stripped = new BsonDocument();
+      value.asDocument().forEach((key, nested) -> stripped.put(key, strip(nested)));
+      return stripped;
+    }
+    if (value.isArray()) {
+      BsonArray stripped = new BsonArray();
+      for (BsonValue element : value.asArray()) {
+        BsonValue strippedElement = strip(element);
+        if (stripped.isEmpty() || !stripped.get(stripped.size() - 1).equals(strippedElement)) {
+          stripped.add(strippedElement);
+        }
+      }
+      return stripped;
+    }
+    if (value.isString() && value.asString().getValue().startsWith("$")) {
+      return value;
+    }
+    return LITERAL;
+  }
+
+  /**
+   * Aggregations report the plan of their initial query under the first stage; slot-based plans
+   * keep the classic plan tree under {@code queryPlan}.
+   */
+  private static Document findWinningPlan(Document explain) {
+    Document queryPlanner = explain.get("queryPlanner") instanceof Document planner ? planner : null;
+    if (queryPlanner == null && explain.get("stages") instanceof List<?> stages && !stages.isEmpty()
+        && stages.getFirst() instanceof Document firstStage
+        && firstStage.get("$cursor") instanceof Document cursor
+        && cursor.get("queryPlanner") instanceof Document planner) {
+      queryPlanner = planner;
+    }
+    if (queryPlanner == null || !(queryPlanner.get("winningPlan") instanceof Document winningPlan)) {
+      return null;
+    }
+    return winningPlan.get("queryPlan") instanceof Document queryPlan ? queryPlan : winningPlan;
+  }
+
+  private static void collectStages(Document plan, List<String> stages) {
+    if (plan.get("stage") instanceof String stage) {
+      stages.add(stage);
+    }
+    if (plan.get("inputStage") instanceof Document inputStage) {
+      collectStages(inputStage, stages);
+    }
+    if (plan.get("inputStages") instanceof List<?> inputStages) {
+      for (Object inputStage : inputStages) {
+        if (inputStage instanceof Document document) {
+          collectStages(document, stages);
+        }
+      }
+    }
+  }
+
+  private static SlowMongoCommandsDto.CommandShapeDto convertShapeToDto(ShapeStats stats) {
+    long count = stats.count.sum();
+    Explain explain = stats.explain;
+    return new SlowMongoCommandsDto.CommandShapeDto(
+        stats.commandName,
+        stats.collection,
+        stats.shape,
+        count,
+        count == 0 ? 0 : stats.totalNanos.sum() / 1e6 / count,
+        stats.maxNanos.get() / 1e6,
+        stats.lastSeenAtMillis == 0 ? null : Instant.ofEpochMilli(stats.lastSeenAtMillis).toString(),
+        stats.explainStatus.name(),
+        explain != null ? explain.stages() : null,
+        explain != null ? explain.collectionScan() : null,
+        explain != null ? explain.winningPlan() : null);
+  }
+}
@@ -0,0 +1,236 @@
+package org.reminstant.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blacklist of token ids (token digests) stored in Redis and mirrored by a local Bloom filter,
+ * so that Redis is consulted only for the few lookups the filter cannot rule out.
+ * <p>
+ * Nodes broadcast new entries over Redis; lost broadcasts and expired entries are reconciled
+ * by rebuilding the filter from Redis periodically. Until the first successful rebuild
+ * every lookup goes to Redis.
+ */
+@Slf4j
+@Component
+public class TokenBlacklist implements MessageListener {
+
+  private static final String KEY_PREFIX = "token-blacklist:";
+  private static final String ADDITION_CHANNEL = "token-blacklist";
+  private static final String LEGACY_KEY_PATTERN = "eyJ*";
+  private static final int SCAN_BATCH_SIZE = 1000;
+
+  private final StringRedisTemplate redisTemplate;
+  private final int expectedTokens;
+  private final double falsePositiveRate;
+
+  private final Lock rebuildLock;
+  private volatile BloomFilter filter;
+  private volatile BloomFilter rebuildingFilter;
+  private volatile boolean ready;
+
+  private final Counter filterRejections;
+  private final Timer redisLookups;
+
+  public TokenBlacklist(StringRedisTemplate redisTemplate,
+                        RedisMessageListenerContainer listenerContainer,
+                        MeterRegistry meterRegistry,
+                        @Value("${token.blacklist.expected-tokens}") int expectedTokens,
+                        @Value("${token.blacklist.false-positive-rate}") double falsePositiveRate) {
+    this.redisTemplate = redisTemplate;
+    this.expectedTokens = expectedTokens;
+    this.falsePositiveRate = falsePositiveRate;
+    this.rebuildLock = new ReentrantLock();
+    this.filter = new BloomFilter(expectedTokens, falsePositiveRate);
+
+    this.filterRejections = meterRegistry.counter("token.blacklist.filter.rejections");
+    this.redisLookups = meterRegistry.timer("token.blacklist.redis.lookups");
+
+    listenerContainer.addMessageListener(this, new ChannelTopic(ADDITION_CHANNEL));
+  }
+
+  @PostConstruct
+  public void init() {
+    try {
+      migrateLegacyKeys();
+    } catch (RuntimeException ex) {
+      log.warn("Failed to migrate blacklisted tokens to digest keys", ex);
+    }
+    rebuild();
+  }
+
+  public void add(String tokenId, Duration ttl) {
+    redisTemplate.opsForValue().set(KEY_PREFIX + tokenId, "", ttl);
+    addLocally(tokenId);
+    try {
+      redisTemplate.convertAndSend(ADDITION_CHANNEL, tokenId);
+    } catch (RuntimeException ex) {
+      log.warn("Failed to broadcast blacklisted token, other nodes pick it up on the next rebuild", ex);
+    }
+  }
+
+  public boolean contains(String tokenId) {
+    if (ready && !filter.mightContain(tokenId)) {
+      filterRejections.increment();
+      return false;
+    }
+    Boolean blacklisted = redisLookups.record(() -> redisTemplate.hasKey(KEY_PREFIX + tokenId));
+    return Boolean.TRUE.equals(blacklisted);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    addLocally(new String(message.getBody(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Replaces the filter with one built from the entries currently stored in Redis,
+   * which also drops the expired ones.
+   */
+  @Scheduled(
+      fixedDelayString = "${token.blacklist.rebuild-interval}",
+      initialDelayString = "${token.blacklist.rebuild-interval}")
+  public void rebuild() {
+    // a lock rather than a monitor: the scan blocks on Redis and must not pin a virtual scheduler thread
+    rebuildLock.lock();
+    try {
+      BloomFilter rebuilt = new BloomFilter(expectedTokens, falsePositiveRate);
+      // entries added while scanning may be missed by the scan, so they are mirrored into the new filter
+      rebuildingFilter = rebuilt;
+      try {
+        int count = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(SCAN_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+          while (cursor.hasNext()) {
+            rebuilt.put(cursor.next().substring(KEY_PREFIX.length()));
+            ++count;
+          }
+        }
+        filter = rebuilt;
+        ready = true;
+        log.debug("Token blacklist filter rebuilt with {} entries", count);
+      } catch (RuntimeException ex) {
+        log.warn("Failed to rebuild token blacklist filter", ex);
+      } finally {
+        rebuildingFilter = null;
+      }
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Entries reach Redis before they are added locally. The rebuilding filter is read before the current one:
+   * if no rebuild is seen, either the next scan finds the entry in Redis or the swap has already happened
+   * and the entry goes to the new filter.
+   */
+  private void addLocally(String tokenId) {
+    BloomFilter rebuilding = rebuildingFilter;
+    if (rebuilding != null) {
+      rebuilding.put(tokenId);
+    }
+    filter.put(tokenId);
+  }
+
+  /**
+   * Tokens used to be blacklisted under their raw value.
+   */
+  private void migrateLegacyKeys() {
+    ScanOptions options = ScanOptions.scanOptions().match(LEGACY_KEY_PATTERN).count(SCAN_BATCH_SIZE).build();
+    try (Cursor<String> cursor = redisTemplate.scan(options)) {
+      while (cursor.hasNext()) {
+        String token = cursor.next();
+        Long ttlMillis = redisTemplate.getExpire(token, TimeUnit.MILLISECONDS);
+        if (ttlMillis != null && ttlMillis > 0) {
+          redisTemplate.opsForValue().set(KEY_PREFIX + JwtService.digest(token), "", Duration.ofMillis(ttlMillis));
+        }
+        redisTemplate.delete(token);
+      }
+    }
+  }
+
+  /**
+   * Bloom filter over token ids. Ids are Base64 SHA-256 digests, so two 64-bit words of the digest
+   * serve as independent hashes for double hashing.
+   */
+  private static class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+      long optimalBits = (long) Math.ceil(
+          -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+      int words = (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+      this.bits = new AtomicLongArray(words);
+      this.bitCount = (long) words * Long.SIZE;
+      this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    void put(String tokenId) {
+      ByteBuffer hash = hash(tokenId);
+      long h1 = hash.getLong();
+      long h2 = hash.getLong();
+      for (int i = 0; i < hashCount; ++i) {
+        long bit = Math.floorMod(h1 + i * h2, bitCount);
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        if ((bits.get(word) & mask) == 0) {
+          bits.getAndAccumulate(word, mask, (a, b) -> a | b);
+        }
+      }
+    }
+
+    boolean mightContain(String tokenId) {
+      ByteBuffer hash = hash(tokenId);
+      long h1 = hash.getLong();
+      long h2 = hash.getLong();
+      for (int i = 0; i < hashCount; ++i) {
+        long bit = Math.floorMod(h1 + i * h2, bitCount);
+        if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static ByteBuffer hash(String tokenId) {
+      byte[] bytes;
+      try {
+        bytes = Base64.getDecoder().decode(tokenId);
+      } catch (IllegalArgumentException ex) {
+        bytes = null;
+      }
+      if (bytes == null || bytes.length < 2 * Long.BYTES) {
+        // ids that are not digests are digested, so that any string can be looked up
+        bytes = Base64.getDecoder().decode(JwtService.digest(tokenId));
+      }
+      return ByteBuffer.wrap(bytes);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package org.reminstant.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reminstant.dto.http.request.ReservationBatchRequestDto;
+import org.reminstant.dto.http.request.ReservationIdsDto;
+import org.reminstant.dto.http.request.ReservationRequestDto;
+import org.reminstant.dto.http.request.ReservationSeriesRequestDto;
+import org.reminstant.dto.http.response.FreeSlotsDto;
+import org.reminstant.dto.http.response.ReservationBatchResultDto;
+import org.reminstant.dto.http.response.ReservationSeriesResultDto;
+import org.reminstant.filter.RoundTripBudget;
+import org.reminstant.model.AppUserPrincipal;
+import org.reminstant.model.ReservationSeriesMode;
+import org.reminstant.model.Room;
+import org.reminstant.service.CommonUnavailabilityCache;
+import org.reminstant.service.RoomCatalogCache;
+import org.reminstant.service.RoomService;
+import org.reminstant.service.RoundTrips;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
+import java.security.Principal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the handlers whose store operations must not grow with the request size against real stores
+ * and fails when they issue more round trips than their {@link RoundTripBudget}. Caches are invalidated
+ * first, so that the budgets are checked on the cold path.
+ */
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=update")
+@Testcontainers
+class RoundTripBudgetTest {
+
+  private static final List<String> ROOM_TITLES = List.of("RT-101", "RT-102", "RT-103", "RT-104");
+  private static final int DAY_COUNT = 5;
+
+  @Container
+  @ServiceConnection
+  static MongoDBContainer mongo = new MongoDBContainer("mongo:7");
+
+  @Container
+  @ServiceConnection
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+  @Container
+  @ServiceConnection(name = "redis")
+  static GenericContainer<?> redis = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+  @Autowired
+  private ReservationServiceController controller;
+
+  @Autowired
+  private RoomService roomService;
+
+  @Autowired
+  private RoomCatalogCache roomCatalogCache;
+
+  @Autowired
+  private CommonUnavailabilityCache commonUnavailabilityCache;
+
+  @BeforeEach
+  void setUp() {
+    for (String roomTitle : ROOM_TITLES) {
+      try {
+        roomService.addRoom(new Room(roomTitle));
+      } catch (DuplicateKeyException ex) {
+        // added by an earlier test
+      }
+    }
+    roomCatalogCache.invalidate();
+    commonUnavailabilityCache.invalidate();
+  }
+
+  @Test
+  void batchReservationStaysWithinBudget() throws Exception {
+    LocalDate tomorrow = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+    List<ReservationRequestDto> reservations = new ArrayList<>();
+    for (String roomTitle : ROOM_TITLES) {
+      for (int day = 0; day < DAY_COUNT; ++day) {
+        reservations.add(new ReservationRequestDto(roomTitle, tomorrow.plusDays(day).toString(), 10, 11));
+      }
+    }
+    Principal principal = authenticate(1L);
+
+    try (RoundTrips.Scope scope = RoundTrips.open()) {
+      ReservationBatchResultDto result = controller.reserveRooms(
+          new ReservationBatchRequestDto(reservations), principal);
+
+      assertTrue(result.results().stream().allMatch(ReservationBatchResultDto.ItemResult::succeeded),
+          () -> "Batch failed: " + result);
+      scope.assertAtMost(getBudget("reserveRooms", ReservationBatchRequestDto.class, Principal.class));
+    }
+  }
+
+  @Test
+  void availabilityMatrixStaysWithinBudget() throws Exception {
+    try (RoundTrips.Scope scope = RoundTrips.open()) {
+      ResponseEntity<StreamingResponseBody> response = controller.getAvailMatrix(null, 30, null);
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      response.getBody().writeTo(body);
+
+      assertTrue(body.toString().contains(ROOM_TITLES.getFirst()), () -> "Room missing in " + body);
+      scope.assertAtMost(getBudget("getAvailMatrix", String.class, int.class, List.class));
+    }
+  }
+
+  @Test
+  void seriesReservationStaysWithinBudget() throws Exception {
+    String tomorrow = LocalDate.now(ZoneOffset.UTC).plusDays(1).toString();
+    var request = new ReservationSeriesRequestDto(ROOM_TITLES.get(2), tomorrow, EnumSet.allOf(DayOfWeek.class),
+        14, 15, 1, ReservationSeriesMode.BEST_EFFORT);
+    Principal principal = authenticate(2L);
+
+    try (RoundTrips.Scope scope = RoundTrips.open()) {
+      ReservationSeriesResultDto result = controller.reserveRoomSeries(request, principal);
+
+      assertTrue(result.occurrences().stream().anyMatch(ReservationSeriesResultDto.OccurrenceResult::succeeded),
+          () -> "Series failed: " + result);
+      scope.assertAtMost(getBudget("reserveRoomSeries", ReservationSeriesRequestDto.class, Principal.class));
+    }
+  }
+
+  @Test
+  void batchCancellationStaysWithinBudget() throws Exception {
+    LocalDate tomorrow = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+    List<ReservationRequestDto> reservations = new ArrayList<>();
+    for (String roomTitle : ROOM_TITLES) {
+      for (int day = 0; day < DAY_COUNT; ++day) {
+        reservations.add(new ReservationRequestDto(roomTitle, tomorrow.plusDays(day).toString(), 17, 18));
+      }
+    }
+    Principal principal = authenticate(3L);
+    List<String> reservationIds = controller.reserveRooms(new ReservationBatchRequestDto(reservations), principal)
+        .results().stream()
+        .filter(ReservationBatchResultDto.ItemResult::succeeded)
+        .map(ReservationBatchResultDto.ItemResult::reservationId)
+        .toList();
+    assertFalse(reservationIds.isEmpty(), "Nothing to cancel");
+
+    try (RoundTrips.Scope scope = RoundTrips.open()) {
+      ReservationBatchResultDto result = controller.cancelReservations(
+          new ReservationIdsDto(reservationIds), principal);
+
+      assertTrue(result.results().stream().allMatch(ReservationBatchResultDto.ItemResult::succeeded),
+          () -> "Cancellation failed: " + result);
+      scope.assertAtMost(getBudget("cancelReservations", ReservationIdsDto.class, Principal.class));
+    }
+  }
+
+  @Test
+  void freeSlotSearchStaysWithinBudget() throws Exception {
+    String tomorrow = LocalDate.now(ZoneOffset.UTC).plusDays(1).toString();
+
+    try (RoundTrips.Scope scope = RoundTrips.open()) {
+      FreeSlotsDto result = controller.findFreeSlots(2, 0, 23, tomorrow, 7, 10);
+
+      assertFalse(result.slots().isEmpty(), "No free slots found");
+      scope.assertAtMost(getBudget("findFreeSlots",
+          int.class, int.class, int.class, String.class, int.class, int.class));
+    }
+  }
+
+  private static Principal authenticate(Long userId) {
+    return new UsernamePasswordAuthenticationToken(new AppUserPrincipal("user" + userId, userId), null, List.of());
+  }
+
+  private static int getBudget(String handlerName, Class<?>... parameterTypes) throws NoSuchMethodException {
+    Method handler = ReservationServiceController.class.getDeclaredMethod(handlerName, parameterTypes);
+    return handler.getAnnotation(RoundTripBudget.class).value();
+  }
+}
@@ -0,0 +1,176 @@
+package org.reminstant.model;
+
+import com.mongodb.ExplainVerbosity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.reminstant.config.MongoConfig;
+import org.reminstant.service.SlowMongoCommandLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the hot reservation and occupancy queries against a populated collection
+ * and checks that each of them is served by its index rather than a collection scan.
+ */
+@DataMongoTest
+@Testcontainers
+@Import({MongoConfig.class, SlowMongoCommandLog.class})
+class QueryIndexUsageTest {
+
+  private static final int ROOM_COUNT = 20;
+  private static final int USER_COUNT = 50;
+  private static final int DAY_COUNT = 60;
+
+  @Container
+  @ServiceConnection
+  static MongoDBContainer mongo = new MongoDBContainer("mongo:7");
+
+  private static final OffsetDateTime FIRST_DATE =
+      LocalDate.now(ZoneOffset.UTC).minusDays(DAY_COUNT / 2).atStartOfDay().atOffset(ZoneOffset.UTC);
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @BeforeAll
+  static void populate(@Autowired MongoTemplate mongoTemplate) {
+    mongoTemplate.dropCollection(Reservation.class);
+    mongoTemplate.dropCollection(RoomDayOccupancy.class);
+    createIndexes(mongoTemplate, Reservation.class);
+    createIndexes(mongoTemplate, RoomDayOccupancy.class);
+
+    List<Reservation> reservations = new ArrayList<>();
+    List<RoomDayOccupancy> occupancies = new ArrayList<>();
+    for (int room = 0; room < ROOM_COUNT; ++room) {
+      for (int day = 0; day < DAY_COUNT; ++day) {
+        OffsetDateTime date = FIRST_DATE.plusDays(day);
+        long userId = (room * DAY_COUNT + day) % USER_COUNT;
+        reservations.add(new Reservation(roomId(room), userId, date, 1 << 10, 0xFL << 40, 0L));
+        occupancies.add(new RoomDayOccupancy(roomId(room), date, 0xFL << 40, 0L));
+      }
+    }
+    mongoTemplate.insertAll(reservations);
+    mongoTemplate.insertAll(occupancies);
+  }
+
+  @Test
+  void reservationsByRoomAndDateUseRoomDateIndex() {
+    Query query = new Query(Criteria
+        .where("roomId").is(roomId(3))
+        .and("date").gte(FIRST_DATE.plusDays(10)).lt(FIRST_DATE.plusDays(20)));
+
+    assertServedByIndex(explain(query, Reservation.class), "roomId_date");
+  }
+
+  @Test
+  void reservationsByUserAndDateUseUserDateIndex() {
+    Query query = new Query(Criteria
+        .where("userId").is(7L)
+        .and("date").gte(FIRST_DATE.plusDays(DAY_COUNT / 2)));
+    query.fields().include("_id");
+
+    assertServedByIndex(explain(query, Reservation.class), "userId_date");
+  }
+
+  @Test
+  void reservationsOverHorizonUseDateIndex() {
+    Query query = new Query(Criteria.where("date").gte(FIRST_DATE.plusDays(DAY_COUNT / 2)));
+
+    assertServedByIndex(explain(query, Reservation.class), "date");
+  }
+
+  @Test
+  void occupancyOfRoomDayUsesRoomDateIndex() {
+    Query query = new Query(Criteria
+        .where("roomId").is(roomId(5))
+        .and("date").is(FIRST_DATE.plusDays(12)));
+
+    assertServedByIndex(explain(query, RoomDayOccupancy.class), "roomId_date");
+  }
+
+  @Test
+  void occupancyOfRoomDayRangeUsesRoomDateIndex() {
+    Query query = new Query(Criteria
+        .where("roomId").is(roomId(5))
+        .and("date").gte(FIRST_DATE.plusDays(10)).lte(FIRST_DATE.plusDays(40)));
+
+    assertServedByIndex(explain(query, RoomDayOccupancy.class), "roomId_date");
+  }
+
+  @Test
+  void occupancyOverHorizonUsesDateIndex() {
+    Query query = new Query(Criteria.where("date")
+        .gte(FIRST_DATE.plusDays(DAY_COUNT / 2))
+        .lt(FIRST_DATE.plusDays(DAY_COUNT)));
+
+    assertServedByIndex(explain(query, RoomDayOccupancy.class), "date");
+  }
+
+
+
+  @SuppressWarnings("deprecation")
+  private static void createIndexes(MongoTemplate mongoTemplate, Class<?> entityClass) {
+    var resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+    resolver.resolveIndexFor(entityClass).forEach(mongoTemplate.indexOps(entityClass)::ensureIndex);
+  }
+
+  private Document explain(Query query, Class<?> entityClass) {
+    var entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityClass);
+    Document filter = new QueryMapper(mongoTemplate.getConverter()).getMappedObject(query.getQueryObject(), entity);
+    return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass))
+        .find(filter)
+        .projection(query.getFieldsObject())
+        .explain(ExplainVerbosity.QUERY_PLANNER);
+  }
+
+  private static void assertServedByIndex(Document explain, String indexName) {
+    Document queryPlanner = explain.get("queryPlanner", Document.class);
+    Document candidatePlan = queryPlanner.get("winningPlan", Document.class);
+    Document winningPlan = candidatePlan.get("queryPlan") instanceof Document queryPlan ? queryPlan : candidatePlan;
+
+    List<Document> stages = new ArrayList<>();
+    collectStages(winningPlan, stages);
+    assertFalse(stages.stream().anyMatch(stage -> "COLLSCAN".equals(stage.getString("stage"))),
+        () -> "Collection scan in " + winningPlan.toJson());
+    assertTrue(stages.stream().anyMatch(stage -> "IXSCAN".equals(stage.getString("stage"))
+            && indexName.equals(stage.getString("indexName"))),
+        () -> "No scan of index '" + indexName + "' in " + winningPlan.toJson());
+  }
+
+  private static void collectStages(Document plan, List<Document> stages) {
+    stages.add(plan);
+    if (plan.get("inputStage") instanceof Document inputStage) {
+      collectStages(inputStage, stages);
+    }
+    if (plan.get("inputStages") instanceof List<?> inputStages) {
+      for (Object inputStage : inputStages) {
+        if (inputStage instanceof Document document) {
+          collectStages(document, stages);
+        }
+      }
+    }
+  }
+
+  private static String roomId(int room) {
+    return "room-%02d".formatted(room);
+  }
+}